@@ -27,6 +27,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/profiles/{username}").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/posts/{postId}").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/posts/user/{username}").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/posts/user/{username}/cursor").permitAll()
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             )
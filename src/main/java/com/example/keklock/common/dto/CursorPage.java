@@ -0,0 +1,16 @@
+package com.example.keklock.common.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+public record CursorPage<T>(
+    List<T> content,
+    int size,
+    boolean hasNext,
+    String nextCursor
+) {
+    public static <T> CursorPage<T> of(Slice<T> slice, String nextCursor) {
+        return new CursorPage<>(slice.getContent(), slice.getSize(), slice.hasNext(), slice.hasNext() ? nextCursor : null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.keklock.post.controller;
 
 import com.example.keklock.common.dto.ApiResponse;
+import com.example.keklock.common.dto.CursorPage;
 import com.example.keklock.common.service.FileStorageService;
 import com.example.keklock.post.cqrs.FeedQueryService;
 import com.example.keklock.post.dto.*;
@@ -32,6 +33,8 @@ public class PostController {
     private final FeedQueryService feedQueryService;
     private final FileStorageService fileStorageService;
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @PostMapping
     public ResponseEntity<ApiResponse<PostResponse>> createPost(
         @AuthenticationPrincipal Jwt jwt,
@@ -58,18 +61,40 @@ public class PostController {
 
     @GetMapping("/{postId}")
     public ResponseEntity<ApiResponse<PostResponse>> getPost(
+        @AuthenticationPrincipal Jwt jwt,
         @PathVariable UUID postId
     ) {
-        PostResponse post = postService.getPost(postId);
+        PostResponse post = postService.getPost(postId, viewerOf(jwt));
         return ResponseEntity.ok(ApiResponse.success(post));
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<PostBatchResponse>> getPosts(
+        @AuthenticationPrincipal Jwt jwt,
+        @RequestParam List<UUID> ids
+    ) {
+        PostBatchResponse posts = postService.getPosts(ids, viewerOf(jwt));
+        return ResponseEntity.ok(ApiResponse.success(posts));
+    }
+
     @GetMapping("/user/{username}")
     public ResponseEntity<ApiResponse<Page<PostResponse>>> getUserPosts(
+        @AuthenticationPrincipal Jwt jwt,
         @PathVariable String username,
         @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable
     ) {
-        Page<PostResponse> posts = postService.getUserPosts(username, pageable);
+        Page<PostResponse> posts = postService.getUserPosts(username, viewerOf(jwt), pageable);
+        return ResponseEntity.ok(ApiResponse.success(posts));
+    }
+
+    @GetMapping("/user/{username}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<PostResponse>>> getUserPostsByCursor(
+        @AuthenticationPrincipal Jwt jwt,
+        @PathVariable String username,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<PostResponse> posts = postService.getUserPostsSlice(username, viewerOf(jwt), cursor, clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(posts));
     }
 
@@ -83,6 +108,17 @@ public class PostController {
         return ResponseEntity.ok(ApiResponse.success(feed));
     }
 
+    @GetMapping("/feed/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<PostResponse>>> getFeedByCursor(
+        @AuthenticationPrincipal Jwt jwt,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        String identityId = jwt.getSubject();
+        CursorPage<PostResponse> feed = postService.getFeedSlice(identityId, cursor, clampSize(size));
+        return ResponseEntity.ok(ApiResponse.success(feed));
+    }
+
     @GetMapping("/feed/optimized")
     public ResponseEntity<ApiResponse<Page<PostResponse>>> getOptimizedFeed(
         @AuthenticationPrincipal Jwt jwt,
@@ -93,6 +129,27 @@ public class PostController {
         return ResponseEntity.ok(ApiResponse.success(feed));
     }
 
+    @GetMapping("/feed/ranked")
+    public ResponseEntity<ApiResponse<Page<PostResponse>>> getRankedFeed(
+        @AuthenticationPrincipal Jwt jwt,
+        @PageableDefault(size = 20) Pageable pageable
+    ) {
+        String identityId = jwt.getSubject();
+        Page<PostResponse> feed = feedQueryService.getRankedFeed(identityId, pageable);
+        return ResponseEntity.ok(ApiResponse.success(feed));
+    }
+
+    @GetMapping("/feed/optimized/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<PostResponse>>> getOptimizedFeedByCursor(
+        @AuthenticationPrincipal Jwt jwt,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        String identityId = jwt.getSubject();
+        CursorPage<PostResponse> feed = feedQueryService.getOptimizedFeedSlice(identityId, cursor, clampSize(size));
+        return ResponseEntity.ok(ApiResponse.success(feed));
+    }
+
     @DeleteMapping("/{postId}")
     public ResponseEntity<ApiResponse<Void>> deletePost(
         @AuthenticationPrincipal Jwt jwt,
@@ -154,4 +211,13 @@ public class PostController {
         postService.deleteComment(identityId, commentId);
         return ResponseEntity.ok(ApiResponse.success("Comment deleted successfully", null));
     }
+
+    private static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // Public endpoints are reachable anonymously, in which case there is no principal
+    private static String viewerOf(Jwt jwt) {
+        return jwt == null ? null : jwt.getSubject();
+    }
 }
@@ -0,0 +1,90 @@
+package com.example.keklock.post.cqrs;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+class BoundedTimeline {
+
+    private final ConcurrentSkipListSet<TimelineEntry> entries = new ConcurrentSkipListSet<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private volatile long lastAccess = System.nanoTime();
+
+    BoundedTimeline(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean add(TimelineEntry entry, Consumer<TimelineEntry> onTrim) {
+        if (!entries.add(entry)) {
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            TimelineEntry oldest = entries.pollLast();
+            if (oldest != null) {
+                size.decrementAndGet();
+                onTrim.accept(oldest);
+            }
+        }
+        return true;
+    }
+
+    boolean contains(TimelineEntry entry) {
+        return entries.contains(entry);
+    }
+
+    boolean remove(UUID postId) {
+        Iterator<TimelineEntry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            TimelineEntry entry = iterator.next();
+            if (entry.postId().equals(postId) && entries.remove(entry)) {
+                size.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<TimelineEntry> page(long offset, int limit) {
+        return slice(entries, offset, limit);
+    }
+
+    List<TimelineEntry> olderThan(TimelineEntry bound, int limit) {
+        return slice(entries.tailSet(bound, false), 0, limit);
+    }
+
+    private static List<TimelineEntry> slice(Iterable<TimelineEntry> source, long offset, int limit) {
+        List<TimelineEntry> result = new ArrayList<>(limit);
+        long skipped = 0;
+        for (TimelineEntry entry : source) {
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    Iterable<TimelineEntry> entries() {
+        return entries;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.keklock.post.cqrs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EngagementCoalescer {
+
+    private final FeedCacheService feedCacheService;
+    private final RankingPolicy rankingPolicy;
+    private final MeterRegistry meterRegistry;
+    private final Map<UUID, Delta> pending = new ConcurrentHashMap<>();
+
+    private Counter receivedEvents;
+    private Counter appliedWrites;
+    private DistributionSummary absorbedPerWindow;
+
+    record Delta(int likes, int comments, int events) {
+        Delta plus(Delta other) {
+            return new Delta(likes + other.likes, comments + other.comments, events + other.events);
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        receivedEvents = Counter.builder("feed.engagement.events")
+            .description("Like and comment events received for cached posts")
+            .register(meterRegistry);
+        appliedWrites = Counter.builder("feed.engagement.writes")
+            .description("Counter writes applied to the feed cache after coalescing")
+            .register(meterRegistry);
+        absorbedPerWindow = DistributionSummary.builder("feed.engagement.absorbed")
+            .description("Events folded into an earlier write of the same post per flush window")
+            .register(meterRegistry);
+    }
+
+    public void record(UUID postId, int likesDelta, int commentsDelta) {
+        pending.merge(postId, new Delta(likesDelta, commentsDelta, 1), Delta::plus);
+        receivedEvents.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.engagement.flush-interval:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int events = 0;
+        int writes = 0;
+        // remove() hands over each delta atomically; events arriving meanwhile start a new delta
+        for (UUID postId : new ArrayList<>(pending.keySet())) {
+            Delta delta = pending.remove(postId);
+            if (delta == null) {
+                continue;
+            }
+            events += delta.events();
+            if (delta.likes() == 0 && delta.comments() == 0) {
+                continue;
+            }
+            try {
+                feedCacheService.incrementCounters(postId, delta.likes(), delta.comments());
+                if (rankingPolicy.isEnabled()) {
+                    feedCacheService.rescorePost(postId);
+                }
+                writes++;
+            } catch (Exception e) {
+                log.error("Failed to apply engagement counters for post {}", postId, e);
+            }
+        }
+
+        appliedWrites.increment(writes);
+        absorbedPerWindow.record(events - writes);
+        log.debug("Flushed {} engagement events as {} counter writes", events, writes);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.keklock.post.cqrs;
+
+import com.example.keklock.profile.repository.ProfileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class FanoutPolicy {
+
+    private final ProfileRepository profileRepository;
+
+    @Value("${app.feed.fanout.pull-threshold:10000}")
+    private long pullThreshold;
+
+    public boolean shouldFanOut(Long authorId) {
+        return profileRepository.countFollowers(authorId) < pullThreshold;
+    }
+
+    // Resolved with a join on follows, so the query does not grow with the number of pull authors
+    public Set<Long> followedPullAuthors(Long userId) {
+        return new HashSet<>(profileRepository.findFollowingIdsWithFollowersAtLeast(userId, pullThreshold));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.keklock.post.cqrs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+@Component
+@RequiredArgsConstructor
+public class FeedCacheMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public static String implementationOf(Object feedCacheService) {
+        Class<?> type = ClassUtils.getUserClass(feedCacheService);
+        if (type == RedisFeedCacheService.class) return "redis";
+        if (type == NearCacheFeedCacheService.class) return "near-cache";
+        if (type == InMemoryFeedCacheService.class) return "in-memory";
+        return type.getSimpleName();
+    }
+
+    public Timer operationTimer(String implementation, String operation, String outcome) {
+        return Timer.builder("feed.cache.operation")
+            .description("Latency of feed cache operations")
+            .tag("implementation", implementation)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    public void recordFanout(String implementation, long followers) {
+        DistributionSummary.builder("feed.fanout.size")
+            .description("Follower timelines written per fanned-out post")
+            .tag("implementation", implementation)
+            .register(meterRegistry)
+            .record(followers);
+    }
+
+    public void recordTimelineLength(String implementation, long length) {
+        DistributionSummary.builder("feed.timeline.length")
+            .description("Timeline length after a post is pushed into it")
+            .tag("implementation", implementation)
+            .register(meterRegistry)
+            .record(length);
+    }
+
+    public void recordQuery(String implementation, String mode, String result) {
+        meterRegistry.counter("feed.query",
+            "implementation", implementation,
+            "mode", mode,
+            "result", result
+        ).increment();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.keklock.post.cqrs;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Times every FeedCacheService call, so each implementation is measured without touching its code
+@Component
+@RequiredArgsConstructor
+public class FeedCacheMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final Set<String> OPERATIONS = Arrays.stream(FeedCacheService.class.getMethods())
+        .map(Method::getName)
+        .collect(Collectors.toSet());
+
+    private final ObjectProvider<FeedCacheMetrics> metrics;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof FeedCacheService)) {
+            return bean;
+        }
+
+        String implementation = FeedCacheMetrics.implementationOf(bean);
+        MethodInterceptor timing = invocation -> {
+            String operation = invocation.getMethod().getName();
+            if (!OPERATIONS.contains(operation)) {
+                return invocation.proceed();
+            }
+
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                Timer timer = metrics.getObject().operationTimer(implementation, operation, outcome);
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(timing);
+        return proxyFactory.getProxy();
+    }
+}
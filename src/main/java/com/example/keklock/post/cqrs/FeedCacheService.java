@@ -1,12 +1,28 @@
 package com.example.keklock.post.cqrs;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public interface FeedCacheService {
     void addToFollowerFeeds(Long authorId, FeedEntry feedEntry);
-    void updateFeedEntry(UUID postId, FeedEntry feedEntry);
-    void removeFeedEntry(UUID postId, Long userId);
-    List<FeedEntry> getUserFeed(Long userId, int page, int size);
+    void addToAuthorTimeline(Long authorId, FeedEntry feedEntry);
+    void backfillUserFeed(Long userId, List<FeedEntry> feedEntries);
+    void mergeIntoUserFeed(Long userId, List<FeedEntry> feedEntries);
+    void removeFromUserFeed(Long userId, Collection<UUID> postIds);
+    void restorePosts(List<FeedEntry> feedEntries);
+    void updateAuthor(Long authorId, String username, String avatarUrl);
+    void incrementCounters(UUID postId, int likesDelta, int commentsDelta);
+    void rescorePost(UUID postId);
+    void removePost(UUID postId);
+    List<TimelineEntry> getUserTimeline(Long userId, int page, int size);
+    List<TimelineEntry> getRankedTimeline(Long userId, int page, int size);
+    List<TimelineEntry> getUserTimelineAfter(Long userId, TimelineEntry bound, int size);
+    List<TimelineEntry> getAuthorTimeline(Long authorId, int limit);
+    List<TimelineEntry> getAuthorTimelineAfter(Long authorId, TimelineEntry bound, int limit);
+    Set<Long> getPullAuthors();
+    Map<UUID, FeedEntry> getFeedEntries(Collection<UUID> postIds);
     void invalidateUserFeed(Long userId);
 }
@@ -1,10 +1,13 @@
 package com.example.keklock.post.cqrs;
 
+import com.example.keklock.post.domain.Post;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record FeedEntry(
     UUID postId,
+    Long authorId,
     String authorUsername,
     String authorAvatarUrl,
     String content,
@@ -15,6 +18,40 @@ public record FeedEntry(
     LocalDateTime updatedAt
 ) implements Comparable<FeedEntry> {
 
+    public static FeedEntry from(Post post) {
+        return new FeedEntry(
+            post.getId(),
+            post.getAuthor().getId(),
+            post.getAuthor().getUsername(),
+            post.getAuthor().getAvatarUrl(),
+            post.getContent(),
+            post.getImageUrl(),
+            post.getLikesCount(),
+            post.getCommentsCount(),
+            post.getCreatedAt(),
+            post.getUpdatedAt()
+        );
+    }
+
+    public static FeedEntry of(PostSnapshot snapshot, int likesCount, int commentsCount) {
+        return new FeedEntry(
+            snapshot.postId(),
+            snapshot.authorId(),
+            snapshot.authorUsername(),
+            snapshot.authorAvatarUrl(),
+            snapshot.content(),
+            snapshot.imageUrl(),
+            likesCount,
+            commentsCount,
+            snapshot.createdAt(),
+            snapshot.updatedAt()
+        );
+    }
+
+    public PostSnapshot snapshot() {
+        return new PostSnapshot(postId, authorId, authorUsername, authorAvatarUrl, content, imageUrl, createdAt, updatedAt);
+    }
+
     @Override
     public int compareTo(FeedEntry other) {
         return other.createdAt.compareTo(this.createdAt);
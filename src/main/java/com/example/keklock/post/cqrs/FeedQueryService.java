@@ -1,6 +1,8 @@
 package com.example.keklock.post.cqrs;
 
+import com.example.keklock.common.dto.CursorPage;
 import com.example.keklock.common.exception.ResourceNotFoundException;
+import com.example.keklock.post.dto.PostCursor;
 import com.example.keklock.post.dto.PostResponse;
 import com.example.keklock.post.repository.PostRepository;
 import com.example.keklock.post.service.PostService;
@@ -8,15 +10,25 @@ import com.example.keklock.profile.domain.Profile;
 import com.example.keklock.profile.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,44 +39,343 @@ public class FeedQueryService {
     private final FeedCacheService feedCacheService;
     private final ProfileRepository profileRepository;
     private final PostService postService;
+    private final PostRepository postRepository;
+    private final RankingPolicy rankingPolicy;
+    private final FanoutPolicy fanoutPolicy;
+    private final FeedCacheMetrics feedCacheMetrics;
+    private final Map<Long, CompletableFuture<List<FeedEntry>>> rebuilds = new ConcurrentHashMap<>();
+
+    @Value("${app.feed.cache.rebuild-size:200}")
+    private int rebuildSize;
+
+    @Value("${app.feed.cache.follow-merge-size:50}")
+    private int followMergeSize;
+
+    @Value("${app.feed.cache.max-entries-per-user:500}")
+    private int maxEntriesPerUser;
 
     @Transactional(readOnly = true)
     public Page<PostResponse> getOptimizedFeed(String identityId, Pageable pageable) {
         Profile user = profileRepository.findByIdentityId(identityId)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
 
-        List<FeedEntry> cachedFeed = feedCacheService.getUserFeed(
-            user.getId(),
-            pageable.getPageNumber(),
-            pageable.getPageSize()
-        );
+        List<TimelineEntry> timeline = readTimeline(user.getId(), pageable.getPageNumber(), pageable.getPageSize());
 
-        if (cachedFeed.isEmpty()) {
+        List<PostResponse> posts = hydrate(timeline);
+        if (posts.isEmpty()) {
+            // An empty page of a warm timeline is past its end, which only the database can serve
+            boolean cold = feedCacheService.getUserTimeline(user.getId(), 0, 1).isEmpty();
+            List<FeedEntry> rebuilt = cold && pageable.getOffset() < rebuildSize ? rebuildFeed(user) : null;
+            if (rebuilt != null) {
+                List<PostResponse> page = rebuilt.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+                if (!page.isEmpty() || rebuilt.size() < rebuildSize) {
+                    recordQuery("latest", "rebuild");
+                    return new PageImpl<>(postService.withLikedByViewer(identityId, page), pageable, rebuilt.size());
+                }
+            }
             log.debug("Cache miss for user {}, falling back to database query", user.getId());
+            recordQuery("latest", "fallback");
             return postService.getFeed(identityId, pageable);
         }
 
-        log.debug("Cache hit for user {}, returning {} entries", user.getId(), cachedFeed.size());
-
-        List<PostResponse> posts = cachedFeed.stream()
-            .map(entry -> new PostResponse(
-                entry.postId(),
-                entry.authorUsername(),
-                entry.authorAvatarUrl(),
-                entry.content(),
-                entry.imageUrl(),
-                entry.likesCount(),
-                entry.commentsCount(),
-                entry.createdAt(),
-                entry.updatedAt()
-            ))
+        log.debug("Cache hit for user {}, returning {} entries", user.getId(), posts.size());
+        recordQuery("latest", "hit");
+        return new PageImpl<>(postService.withLikedByViewer(identityId, posts), pageable, posts.size());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PostResponse> getRankedFeed(String identityId, Pageable pageable) {
+        if (!rankingPolicy.isEnabled()) {
+            return getOptimizedFeed(identityId, pageable);
+        }
+
+        Profile user = profileRepository.findByIdentityId(identityId)
+            .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
+
+        List<PostResponse> posts = hydrate(
+            readRankedTimeline(user.getId(), pageable.getPageNumber(), pageable.getPageSize()));
+        if (posts.isEmpty()) {
+            // Serves this request in time order while the miss rebuilds both timelines
+            log.debug("Ranked cache miss for user {}, falling back to the latest feed", user.getId());
+            recordQuery("ranked", "miss");
+            return getOptimizedFeed(identityId, pageable);
+        }
+        recordQuery("ranked", "hit");
+        return new PageImpl<>(postService.withLikedByViewer(identityId, posts), pageable, posts.size());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getOptimizedFeedSlice(String identityId, String cursor, int size) {
+        Profile user = profileRepository.findByIdentityId(identityId)
+            .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
+
+        TimelineEntry bound = null;
+        if (cursor != null) {
+            PostCursor after = PostCursor.decode(cursor);
+            bound = new TimelineEntry(after.postId(), TimelineEntry.scoreOf(after.createdAt()));
+        }
+
+        List<PostResponse> posts = hydrate(readTimelineAfter(user.getId(), bound, size + 1));
+        String result = "hit";
+        if (posts.isEmpty() && bound == null) {
+            List<FeedEntry> rebuilt = rebuildFeed(user);
+            if (rebuilt != null) {
+                result = "rebuild";
+                posts = rebuilt.stream().limit(size + 1L).map(this::toResponse).collect(Collectors.toList());
+                if (posts.size() <= size) {
+                    recordQuery("cursor", result);
+                    String nextCursor = posts.isEmpty() ? null : PostCursor.of(posts.get(posts.size() - 1)).encode();
+                    return new CursorPage<>(postService.withLikedByViewer(identityId, posts), size,
+                        rebuilt.size() >= rebuildSize, nextCursor);
+                }
+            }
+        }
+        if (posts.isEmpty()) {
+            log.debug("Cache miss for user {} after cursor, falling back to database query", user.getId());
+            recordQuery("cursor", "fallback");
+            return postService.getFeedSlice(identityId, cursor, size);
+        }
+        recordQuery("cursor", result);
+
+        // The cached timeline is capped, so a short page does not mean the feed is exhausted;
+        // the next cursor then falls through to the database
+        List<PostResponse> content = posts.size() > size ? posts.subList(0, size) : posts;
+        String nextCursor = PostCursor.of(content.get(content.size() - 1)).encode();
+        return new CursorPage<>(postService.withLikedByViewer(identityId, content), size, true, nextCursor);
+    }
+
+    // Concurrent misses for the same user share one database load; null means that load failed
+    private List<FeedEntry> rebuildFeed(Profile user) {
+        CompletableFuture<List<FeedEntry>> rebuild = new CompletableFuture<>();
+        CompletableFuture<List<FeedEntry>> inFlight = rebuilds.putIfAbsent(user.getId(), rebuild);
+        if (inFlight != null) {
+            log.debug("Waiting for in-flight feed rebuild of user {}", user.getId());
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+
+        try {
+            List<FeedEntry> entries = postRepository.findFeedSlice(user.getId(), PageRequest.of(0, rebuildSize))
+                .map(FeedEntry::from)
+                .getContent();
+
+            feedCacheService.backfillUserFeed(user.getId(), entries);
+            log.debug("Rebuilt feed cache for user {} with {} entries", user.getId(), entries.size());
+            rebuild.complete(entries);
+            return entries;
+        } catch (RuntimeException e) {
+            log.warn("Feed rebuild failed for user {}", user.getId(), e);
+            rebuild.completeExceptionally(e);
+            return null;
+        } finally {
+            rebuilds.remove(user.getId(), rebuild);
+        }
+    }
+
+    private void recordQuery(String mode, String result) {
+        feedCacheMetrics.recordQuery(FeedCacheMetrics.implementationOf(feedCacheService), mode, result);
+    }
+
+    private List<TimelineEntry> readTimelineAfter(Long userId, TimelineEntry bound, int limit) {
+        List<TimelineEntry> pushed = bound == null
+            ? feedCacheService.getUserTimeline(userId, 0, limit)
+            : feedCacheService.getUserTimelineAfter(userId, bound, limit);
+        if (pushed.isEmpty()) {
+            return pushed;
+        }
+
+        Set<Long> pullAuthors = followedPullAuthors(userId);
+        if (pullAuthors.isEmpty()) {
+            return pushed;
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>(pushed);
+        pullAuthors.forEach(authorId -> merged.addAll(pullAuthorTimeline(authorId, bound, limit)));
+
+        return merged.stream()
+            .distinct()
+            .sorted()
+            .limit(limit)
             .collect(Collectors.toList());
+    }
+
+    private List<TimelineEntry> readTimeline(Long userId, int page, int size) {
+        Set<Long> pullAuthors = followedPullAuthors(userId);
+        if (pullAuthors.isEmpty()) {
+            return feedCacheService.getUserTimeline(userId, page, size);
+        }
+
+        int window = (page + 1) * size;
+        List<TimelineEntry> pushed = feedCacheService.getUserTimeline(userId, 0, window);
+        if (pushed.isEmpty()) {
+            return pushed;
+        }
 
-        return new PageImpl<>(posts, pageable, cachedFeed.size());
+        // Posts of high-follower authors are not fanned out; merge them in at read time
+        List<TimelineEntry> merged = new ArrayList<>(pushed);
+        pullAuthors.forEach(authorId -> merged.addAll(pullAuthorTimeline(authorId, null, window)));
+
+        return merged.stream()
+            .distinct()
+            .sorted()
+            .skip((long) page * size)
+            .limit(size)
+            .collect(Collectors.toList());
+    }
+
+    private List<TimelineEntry> readRankedTimeline(Long userId, int page, int size) {
+        Set<Long> pullAuthors = followedPullAuthors(userId);
+        if (pullAuthors.isEmpty()) {
+            return feedCacheService.getRankedTimeline(userId, page, size);
+        }
+
+        int window = (page + 1) * size;
+        List<TimelineEntry> ranked = feedCacheService.getRankedTimeline(userId, 0, window);
+        if (ranked.isEmpty()) {
+            return ranked;
+        }
+
+        // Pull authors' recent posts are scored on the fly with the same policy as the stored ranked timeline
+        List<UUID> pulled = pullAuthors.stream()
+            .flatMap(authorId -> pullAuthorTimeline(authorId, null, window).stream())
+            .map(TimelineEntry::postId)
+            .toList();
+        Map<UUID, TimelineEntry> merged = new HashMap<>();
+        ranked.forEach(entry -> merged.put(entry.postId(), entry));
+        feedEntries(pulled).values().forEach(feedEntry -> merged.putIfAbsent(feedEntry.postId(),
+            new TimelineEntry(feedEntry.postId(),
+                rankingPolicy.score(feedEntry.createdAt(), feedEntry.likesCount(), feedEntry.commentsCount()))));
+
+        return merged.values().stream()
+            .sorted()
+            .skip((long) page * size)
+            .limit(size)
+            .collect(Collectors.toList());
+    }
+
+    // Pull authors' posts live only in their author timeline, which expires a day after their last post;
+    // a missing one is reloaded from the database instead of dropping those posts from every warm feed
+    private List<TimelineEntry> pullAuthorTimeline(Long authorId, TimelineEntry bound, int limit) {
+        List<TimelineEntry> cached = bound == null
+            ? feedCacheService.getAuthorTimeline(authorId, limit)
+            : feedCacheService.getAuthorTimelineAfter(authorId, bound, limit);
+        if (!cached.isEmpty() || (bound != null && !feedCacheService.getAuthorTimeline(authorId, 1).isEmpty())) {
+            return cached;
+        }
+
+        List<FeedEntry> reloaded = postRepository.findSliceByAuthorId(authorId, PageRequest.of(0, rebuildSize))
+            .map(FeedEntry::from)
+            .getContent();
+        feedCacheService.restorePosts(reloaded);
+        log.debug("Reloaded {} posts of pull author {}", reloaded.size(), authorId);
+        return reloaded.stream()
+            .map(feedEntry -> new TimelineEntry(feedEntry.postId(), TimelineEntry.scoreOf(feedEntry.createdAt())))
+            .filter(entry -> bound == null || entry.compareTo(bound) > 0)
+            .limit(limit)
+            .collect(Collectors.toList());
     }
 
+    private Set<Long> followedPullAuthors(Long userId) {
+        Set<Long> pullAuthors = feedCacheService.getPullAuthors();
+        if (pullAuthors.isEmpty()) {
+            return pullAuthors;
+        }
+        Set<Long> followed = fanoutPolicy.followedPullAuthors(userId);
+        followed.retainAll(pullAuthors);
+        return followed;
+    }
+
+    private List<PostResponse> hydrate(List<TimelineEntry> timeline) {
+        if (timeline.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> postIds = timeline.stream().map(TimelineEntry::postId).toList();
+        Map<UUID, FeedEntry> entries = feedEntries(postIds);
+
+        return postIds.stream()
+            .map(entries::get)
+            .filter(Objects::nonNull)
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+
+    private Map<UUID, FeedEntry> feedEntries(List<UUID> postIds) {
+        Map<UUID, FeedEntry> entries = new HashMap<>(feedCacheService.getFeedEntries(postIds));
+
+        // Timelines can outlive the post records they reference; reload expired ones in one query and cache them again
+        List<UUID> missing = postIds.stream().filter(postId -> !entries.containsKey(postId)).toList();
+        if (!missing.isEmpty()) {
+            List<FeedEntry> reloaded = postRepository.findWithAuthorByIdIn(missing).stream()
+                .map(FeedEntry::from)
+                .toList();
+            reloaded.forEach(feedEntry -> entries.put(feedEntry.postId(), feedEntry));
+            feedCacheService.restorePosts(reloaded);
+            log.debug("Reloaded {} of {} expired post records", reloaded.size(), missing.size());
+        }
+        return entries;
+    }
+
+    private PostResponse toResponse(FeedEntry entry) {
+        return new PostResponse(
+            entry.postId(),
+            entry.authorUsername(),
+            entry.authorAvatarUrl(),
+            entry.content(),
+            entry.imageUrl(),
+            entry.likesCount(),
+            entry.commentsCount(),
+            entry.createdAt(),
+            entry.updatedAt(),
+            false
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public void mergeFollowedAuthor(Long followerId, Long followedId) {
+        // Posts of pull authors are merged at read time already
+        if (feedCacheService.getPullAuthors().contains(followedId)) {
+            return;
+        }
+
+        List<FeedEntry> entries = postRepository.findSliceByAuthorId(followedId, PageRequest.of(0, followMergeSize))
+            .map(FeedEntry::from)
+            .getContent();
+        feedCacheService.mergeIntoUserFeed(followerId, entries);
+        log.debug("Merged {} posts of user {} into user {}'s feed", entries.size(), followedId, followerId);
+    }
+
+    @Transactional(readOnly = true)
+    public void removeFollowedAuthor(Long followerId, Long unfollowedId) {
+        // Scans the feed itself: the author's post index expires and is trimmed long before older feed entries
+        Set<UUID> postIds = new LinkedHashSet<>();
+        feedCacheService.getUserTimeline(followerId, 0, maxEntriesPerUser).forEach(entry -> postIds.add(entry.postId()));
+        feedCacheService.getRankedTimeline(followerId, 0, maxEntriesPerUser).forEach(entry -> postIds.add(entry.postId()));
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        List<UUID> authored = feedEntries(List.copyOf(postIds)).values().stream()
+            .filter(entry -> unfollowedId.equals(entry.authorId()))
+            .map(FeedEntry::postId)
+            .toList();
+        feedCacheService.removeFromUserFeed(followerId, authored);
+        log.debug("Removed {} posts of user {} from user {}'s feed", authored.size(), unfollowedId, followerId);
+    }
+
+    @Transactional(readOnly = true)
     public void warmUpCache(Long userId) {
         log.info("Warming up cache for user: {}", userId);
+        Profile user = profileRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
         feedCacheService.invalidateUserFeed(userId);
+        rebuildFeed(user);
     }
 }
@@ -0,0 +1,36 @@
+package com.example.keklock.post.cqrs;
+
+import com.example.keklock.profile.repository.ProfileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class FollowerIdSource {
+
+    private final ProfileRepository profileRepository;
+
+    @Value("${app.feed.fanout.batch-size:1000}")
+    private int batchSize;
+
+    // Walks the follows table by follower id so fan-out memory does not grow with the audience
+    public long forEachBatch(Long authorId, Consumer<List<Long>> batchConsumer) {
+        long total = 0;
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = profileRepository.findFollowerIdsAfter(authorId, afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            batchConsumer.accept(batch);
+            total += batch.size();
+            afterId = batch.get(batch.size() - 1);
+        } while (batch.size() == batchSize);
+        return total;
+    }
+}
@@ -1,15 +1,16 @@
 package com.example.keklock.post.cqrs;
 
-import com.example.keklock.profile.domain.Profile;
-import com.example.keklock.profile.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
@@ -17,66 +18,407 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "spring.data.redis.enabled", havingValue = "false", matchIfMissing = true)
 public class InMemoryFeedCacheService implements FeedCacheService {
 
-    private final Map<Long, List<FeedEntry>> feedCache = new ConcurrentHashMap<>();
-    private final ProfileRepository profileRepository;
+    private static final String IMPLEMENTATION = "in-memory";
+
+    // Every change to a user's timelines runs inside compute on that user's entry here, so eviction cannot
+    // remove a timeline between another thread's lookup and its write and leave uncharged entries behind
+    private final Map<Long, BoundedTimeline> timelines = new ConcurrentHashMap<>();
+    // Same members as timelines, scored by RankingPolicy; trimmed, evicted and charged to the budget with them
+    private final Map<Long, BoundedTimeline> rankedTimelines = new ConcurrentHashMap<>();
+    // Recent posts of pull authors only; their entries count against the same budget as user timelines
+    private final Map<Long, BoundedTimeline> authorPosts = new ConcurrentHashMap<>();
+    // Cached post ids per author, whichever path stored them
+    private final Map<Long, Set<UUID>> authorIndex = new ConcurrentHashMap<>();
+    private final Map<UUID, PostSnapshot> posts = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> likeCounts = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> commentCounts = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Long>> postFeeds = new ConcurrentHashMap<>();
+    private final Set<UUID> authorTimelinePosts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pullAuthors = ConcurrentHashMap.newKeySet();
+    private final AtomicLong totalEntries = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FollowerIdSource followerIdSource;
+    private final RankingPolicy rankingPolicy;
+    private final FeedCacheMetrics feedCacheMetrics;
+
+    @Value("${app.feed.cache.max-entries-per-user:500}")
+    private int maxEntriesPerUser;
+
+    @Value("${app.feed.cache.max-total-entries:1000000}")
+    private long maxTotalEntries;
 
     @Override
     public void addToFollowerFeeds(Long authorId, FeedEntry feedEntry) {
-        profileRepository.findById(authorId).ifPresentOrElse(
-            author -> {
-                author.getFollowers().forEach(follower -> {
-                    feedCache.computeIfAbsent(follower.getId(), k -> new ArrayList<>()).add(feedEntry);
-                    log.debug("Added post {} to user {}'s feed", feedEntry.postId(), follower.getId());
-                });
-
-                feedCache.computeIfAbsent(authorId, k -> new ArrayList<>()).add(feedEntry);
-                log.debug("Added post {} to author {}'s own feed", feedEntry.postId(), authorId);
-            },
-            () -> log.warn("Author not found with id: {}", authorId)
-        );
+        TimelineEntry timelineEntry = storePost(authorId, feedEntry);
+        long followers = followerIdSource.forEachBatch(authorId, batch -> {
+            batch.forEach(followerId -> {
+                int length = addToTimeline(followerId, timelineEntry, false);
+                if (length > 0) {
+                    feedCacheMetrics.recordTimelineLength(IMPLEMENTATION, length);
+                }
+            });
+            evictIfOverBudget();
+        });
+        // No follower had a cached feed
+        releaseIfUnreferenced(timelineEntry.postId());
+        feedCacheMetrics.recordFanout(IMPLEMENTATION, followers);
+        log.debug("Added post {} to {} follower feeds", feedEntry.postId(), followers);
+    }
+
+    @Override
+    public void addToAuthorTimeline(Long authorId, FeedEntry feedEntry) {
+        TimelineEntry timelineEntry = storePost(authorId, feedEntry);
+        authorTimelinePosts.add(timelineEntry.postId());
+        boolean added = authorPosts.computeIfAbsent(authorId, k -> new BoundedTimeline(maxEntriesPerUser))
+            .add(timelineEntry, trimmed -> {
+                totalEntries.decrementAndGet();
+                authorTimelinePosts.remove(trimmed.postId());
+                releaseIfUnreferenced(trimmed.postId());
+            });
+        if (added) {
+            totalEntries.incrementAndGet();
+        }
+        pullAuthors.add(authorId);
+        evictIfOverBudget();
+        log.debug("Stored post {} for pull-based delivery of author {}", feedEntry.postId(), authorId);
+    }
+
+    @Override
+    public void backfillUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        feedEntries.forEach(feedEntry -> {
+            cacheRecords(feedEntry);
+            addToTimeline(userId, new TimelineEntry(feedEntry.postId(), TimelineEntry.scoreOf(feedEntry.createdAt())), true);
+        });
+        evictIfOverBudget();
+        log.debug("Backfilled {} posts into user {}'s feed", feedEntries.size(), userId);
+    }
+
+    @Override
+    public void mergeIntoUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        // A cold feed is rebuilt in full on its next read
+        if (timelines.containsKey(userId)) {
+            backfillUserFeed(userId, feedEntries);
+        }
+    }
+
+    @Override
+    public void removeFromUserFeed(Long userId, Collection<UUID> postIds) {
+        postIds.forEach(postId -> {
+            if (removeFromTimeline(userId, postId)) {
+                release(postId, userId);
+            }
+        });
+        log.debug("Removed {} posts from user {}'s feed", postIds.size(), userId);
     }
 
     @Override
-    public void updateFeedEntry(UUID postId, FeedEntry updatedEntry) {
-        feedCache.forEach((userId, entries) -> {
-            for (int i = 0; i < entries.size(); i++) {
-                if (entries.get(i).postId().equals(postId)) {
-                    entries.set(i, updatedEntry);
-                    log.debug("Updated post {} in user {}'s feed", postId, userId);
+    public void restorePosts(List<FeedEntry> feedEntries) {
+        // Records are only dropped once no timeline references them, so this only refills races with a release
+        feedEntries.forEach(feedEntry -> {
+            UUID postId = feedEntry.postId();
+            if (postFeeds.containsKey(postId) || authorTimelinePosts.contains(postId)) {
+                cacheRecords(feedEntry);
+            }
+        });
+    }
+
+    private void cacheRecords(FeedEntry feedEntry) {
+        UUID postId = feedEntry.postId();
+        posts.putIfAbsent(postId, feedEntry.snapshot());
+        likeCounts.putIfAbsent(postId, new AtomicInteger(feedEntry.likesCount()));
+        commentCounts.putIfAbsent(postId, new AtomicInteger(feedEntry.commentsCount()));
+        authorIndex.computeIfAbsent(feedEntry.authorId(), k -> ConcurrentHashMap.newKeySet()).add(postId);
+    }
+
+    private TimelineEntry storePost(Long authorId, FeedEntry feedEntry) {
+        UUID postId = feedEntry.postId();
+        posts.put(postId, feedEntry.snapshot());
+        cacheRecords(feedEntry);
+
+        TimelineEntry timelineEntry = new TimelineEntry(postId, TimelineEntry.scoreOf(feedEntry.createdAt()));
+        addToTimeline(authorId, timelineEntry, false);
+        log.debug("Added post {} to author {}'s own feed", postId, authorId);
+        return timelineEntry;
+    }
+
+    // Only backfills create a timeline: one created by fan-out would hold just the posts pushed since the
+    // feed went cold, look warm and never be rebuilt. Returns the timeline length, or 0 if there is none.
+    private int addToTimeline(Long userId, TimelineEntry timelineEntry, boolean create) {
+        int[] length = {0};
+        timelines.compute(userId, (id, timeline) -> {
+            if (timeline == null) {
+                if (!create) {
+                    return null;
+                }
+                timeline = new BoundedTimeline(maxEntriesPerUser);
+            }
+            postFeeds.computeIfAbsent(timelineEntry.postId(), k -> ConcurrentHashMap.newKeySet()).add(userId);
+            boolean added = timeline.add(timelineEntry, trimmed -> {
+                totalEntries.decrementAndGet();
+                removeRanked(userId, trimmed.postId());
+                release(trimmed.postId(), userId);
+            });
+            if (added) {
+                totalEntries.incrementAndGet();
+                if (rankingPolicy.isEnabled() && timeline.contains(timelineEntry)
+                    && rankedTimelines.computeIfAbsent(userId, k -> new BoundedTimeline(Integer.MAX_VALUE))
+                        .add(rankedEntry(timelineEntry.postId()), trimmed -> {})) {
+                    totalEntries.incrementAndGet();
+                }
+            }
+            length[0] = timeline.size();
+            return timeline;
+        });
+        return length[0];
+    }
+
+    private boolean removeFromTimeline(Long userId, UUID postId) {
+        boolean[] removed = {false};
+        timelines.computeIfPresent(userId, (id, timeline) -> {
+            if (timeline.remove(postId)) {
+                totalEntries.decrementAndGet();
+                removed[0] = true;
+            }
+            removeRanked(userId, postId);
+            return timeline;
+        });
+        return removed[0];
+    }
+
+    private TimelineEntry rankedEntry(UUID postId) {
+        PostSnapshot snapshot = posts.get(postId);
+        double score = snapshot == null ? 0 : rankingPolicy.score(
+            snapshot.createdAt(),
+            likeCounts.getOrDefault(postId, new AtomicInteger()).get(),
+            commentCounts.getOrDefault(postId, new AtomicInteger()).get()
+        );
+        return new TimelineEntry(postId, score);
+    }
+
+    private void removeRanked(Long userId, UUID postId) {
+        BoundedTimeline ranked = rankedTimelines.get(userId);
+        if (ranked != null && ranked.remove(postId)) {
+            totalEntries.decrementAndGet();
+        }
+    }
+
+    private void release(UUID postId, Long userId) {
+        Set<Long> feedOwners = postFeeds.get(postId);
+        if (feedOwners != null) {
+            feedOwners.remove(userId);
+        }
+        releaseIfUnreferenced(postId);
+    }
+
+    private void releaseIfUnreferenced(UUID postId) {
+        if (authorTimelinePosts.contains(postId)) {
+            return;
+        }
+        postFeeds.compute(postId, (id, feedOwners) -> {
+            if (feedOwners != null && !feedOwners.isEmpty()) {
+                return feedOwners;
+            }
+            dropPost(id);
+            return null;
+        });
+    }
+
+    private void dropPost(UUID postId) {
+        PostSnapshot snapshot = posts.remove(postId);
+        if (snapshot != null) {
+            authorIndex.computeIfPresent(snapshot.authorId(), (id, postIds) -> {
+                postIds.remove(postId);
+                return postIds.isEmpty() ? null : postIds;
+            });
+        }
+        likeCounts.remove(postId);
+        commentCounts.remove(postId);
+    }
+
+    private void evictIfOverBudget() {
+        if (totalEntries.get() <= maxTotalEntries || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            // Evict down to 90% of the budget so eviction does not run on every append
+            long target = maxTotalEntries - maxTotalEntries / 10;
+            List<Map.Entry<Long, BoundedTimeline>> byLastAccess = new ArrayList<>(timelines.entrySet());
+            byLastAccess.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess()));
+
+            int evictedUsers = 0;
+            for (Map.Entry<Long, BoundedTimeline> entry : byLastAccess) {
+                if (totalEntries.get() <= target) {
                     break;
                 }
+                evict(entry.getKey(), entry.getValue());
+                evictedUsers++;
+            }
+            log.debug("Evicted {} least recently used feeds, {} entries remain", evictedUsers, totalEntries.get());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evict(Long userId, BoundedTimeline timeline) {
+        boolean[] evicted = {false};
+        timelines.computeIfPresent(userId, (id, current) -> {
+            if (current != timeline) {
+                return current;
             }
+            BoundedTimeline ranked = rankedTimelines.remove(userId);
+            totalEntries.addAndGet(-(timeline.size() + (ranked == null ? 0 : ranked.size())));
+            evicted[0] = true;
+            return null;
         });
+        if (evicted[0]) {
+            timeline.entries().forEach(entry -> release(entry.postId(), userId));
+        }
+    }
+
+    @Override
+    public void updateAuthor(Long authorId, String username, String avatarUrl) {
+        Set<UUID> authorPostIds = authorIndex.get(authorId);
+        if (authorPostIds == null) return;
+
+        authorPostIds.forEach(postId ->
+            posts.computeIfPresent(postId, (id, snapshot) -> snapshot.withAuthor(username, avatarUrl))
+        );
+        log.debug("Updated author {} on cached posts", authorId);
+    }
+
+    @Override
+    public void incrementCounters(UUID postId, int likesDelta, int commentsDelta) {
+        if (likesDelta != 0) {
+            AtomicInteger likes = likeCounts.get(postId);
+            if (likes != null) {
+                likes.addAndGet(likesDelta);
+            }
+        }
+        if (commentsDelta != 0) {
+            AtomicInteger comments = commentCounts.get(postId);
+            if (comments != null) {
+                comments.addAndGet(commentsDelta);
+            }
+        }
+    }
+
+    @Override
+    public void rescorePost(UUID postId) {
+        Set<Long> feedOwners = postFeeds.get(postId);
+        if (!rankingPolicy.isEnabled() || feedOwners == null) return;
+
+        TimelineEntry rescored = rankedEntry(postId);
+        feedOwners.forEach(userId -> timelines.computeIfPresent(userId, (id, timeline) -> {
+            BoundedTimeline ranked = rankedTimelines.get(userId);
+            if (ranked != null && ranked.remove(postId)) {
+                ranked.add(rescored, trimmed -> {});
+            }
+            return timeline;
+        }));
+    }
+
+    @Override
+    public void removePost(UUID postId) {
+        PostSnapshot snapshot = posts.get(postId);
+        if (snapshot != null) {
+            BoundedTimeline authorTimeline = authorPosts.get(snapshot.authorId());
+            if (authorTimeline != null && authorTimeline.remove(postId)) {
+                totalEntries.decrementAndGet();
+            }
+        }
+        authorTimelinePosts.remove(postId);
+
+        Set<Long> feedOwners = postFeeds.remove(postId);
+        if (feedOwners != null) {
+            feedOwners.forEach(userId -> removeFromTimeline(userId, postId));
+        }
+        dropPost(postId);
+        log.debug("Removed post {} from {} feeds", postId, feedOwners == null ? 0 : feedOwners.size());
     }
 
     @Override
-    public void removeFeedEntry(UUID postId, Long userId) {
-        List<FeedEntry> userFeed = feedCache.get(userId);
-        if (userFeed != null) {
-            userFeed.removeIf(entry -> entry.postId().equals(postId));
-            log.debug("Removed post {} from user {}'s feed", postId, userId);
+    public List<TimelineEntry> getUserTimeline(Long userId, int page, int size) {
+        BoundedTimeline timeline = timelines.get(userId);
+        if (timeline == null) {
+            return Collections.emptyList();
         }
+
+        timeline.touch();
+        return timeline.page((long) page * size, size);
     }
 
     @Override
-    public List<FeedEntry> getUserFeed(Long userId, int page, int size) {
-        List<FeedEntry> userFeed = feedCache.getOrDefault(userId, new ArrayList<>());
+    public List<TimelineEntry> getRankedTimeline(Long userId, int page, int size) {
+        BoundedTimeline ranked = rankedTimelines.get(userId);
+        BoundedTimeline timeline = timelines.get(userId);
+        if (ranked == null || timeline == null) {
+            return Collections.emptyList();
+        }
 
-        Collections.sort(userFeed);
+        timeline.touch();
+        return ranked.page((long) page * size, size);
+    }
 
-        int start = page * size;
-        int end = Math.min(start + size, userFeed.size());
+    @Override
+    public List<TimelineEntry> getUserTimelineAfter(Long userId, TimelineEntry bound, int size) {
+        BoundedTimeline timeline = timelines.get(userId);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
 
-        if (start >= userFeed.size()) {
+        timeline.touch();
+        return timeline.olderThan(bound, size);
+    }
+
+    @Override
+    public List<TimelineEntry> getAuthorTimeline(Long authorId, int limit) {
+        BoundedTimeline authorTimeline = authorPosts.get(authorId);
+        if (authorTimeline == null) {
             return Collections.emptyList();
         }
+        return authorTimeline.page(0, limit);
+    }
 
-        return new ArrayList<>(userFeed.subList(start, end));
+    @Override
+    public List<TimelineEntry> getAuthorTimelineAfter(Long authorId, TimelineEntry bound, int limit) {
+        BoundedTimeline authorTimeline = authorPosts.get(authorId);
+        if (authorTimeline == null) {
+            return Collections.emptyList();
+        }
+        return authorTimeline.olderThan(bound, limit);
+    }
+
+    @Override
+    public Set<Long> getPullAuthors() {
+        return Collections.unmodifiableSet(pullAuthors);
+    }
+
+    @Override
+    public Map<UUID, FeedEntry> getFeedEntries(Collection<UUID> postIds) {
+        Map<UUID, FeedEntry> entries = new HashMap<>();
+        postIds.forEach(postId -> {
+            PostSnapshot snapshot = posts.get(postId);
+            if (snapshot != null) {
+                entries.put(postId, FeedEntry.of(
+                    snapshot,
+                    Math.max(0, likeCounts.getOrDefault(postId, new AtomicInteger()).get()),
+                    Math.max(0, commentCounts.getOrDefault(postId, new AtomicInteger()).get())
+                ));
+            }
+        });
+        return entries;
+    }
+
+    long totalEntries() {
+        return totalEntries.get();
     }
 
     @Override
     public void invalidateUserFeed(Long userId) {
-        feedCache.remove(userId);
+        BoundedTimeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            evict(userId, timeline);
+        }
         log.debug("Invalidated feed cache for user: {}", userId);
     }
 }
@@ -0,0 +1,190 @@
+package com.example.keklock.post.cqrs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"spring.data.redis.enabled", "app.feed.near-cache.enabled"}, havingValue = "true")
+public class NearCacheFeedCacheService implements FeedCacheService, MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "feed:invalidate";
+    private static final String USERS_PREFIX = "users:";
+    private static final String POSTS_PREFIX = "posts:";
+
+    private final RedisFeedCacheService delegate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.feed.near-cache.timeline-window:100}")
+    private int timelineWindow;
+
+    @Value("${app.feed.near-cache.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${app.feed.near-cache.max-posts:50000}")
+    private long maxPosts;
+
+    @Value("${app.feed.near-cache.ttl:5s}")
+    private Duration ttl;
+
+    private Cache<Long, List<TimelineEntry>> timelines;
+    // Counters are not broadcast on every like or comment, so other nodes may lag by up to the TTL
+    private Cache<UUID, FeedEntry> entries;
+
+    @PostConstruct
+    void init() {
+        timelines = Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(ttl).build();
+        entries = Caffeine.newBuilder().maximumSize(maxPosts).expireAfterWrite(ttl).build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    static String usersMessage(Collection<Long> userIds) {
+        return USERS_PREFIX + userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    static String postsMessage(Collection<?> postIds) {
+        return POSTS_PREFIX + postIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(USERS_PREFIX)) {
+            ids(body, USERS_PREFIX).forEach(id -> timelines.invalidate(Long.valueOf(id)));
+        } else if (body.startsWith(POSTS_PREFIX)) {
+            ids(body, POSTS_PREFIX).forEach(id -> entries.invalidate(UUID.fromString(id)));
+        } else {
+            log.warn("Ignoring unknown feed invalidation message: {}", body);
+        }
+    }
+
+    private static List<String> ids(String body, String prefix) {
+        String ids = body.substring(prefix.length());
+        return ids.isEmpty() ? List.of() : Arrays.asList(ids.split(","));
+    }
+
+    @Override
+    public void addToFollowerFeeds(Long authorId, FeedEntry feedEntry) {
+        delegate.addToFollowerFeeds(authorId, feedEntry);
+        timelines.invalidate(authorId);
+    }
+
+    @Override
+    public void addToAuthorTimeline(Long authorId, FeedEntry feedEntry) {
+        delegate.addToAuthorTimeline(authorId, feedEntry);
+        timelines.invalidate(authorId);
+    }
+
+    @Override
+    public void backfillUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        delegate.backfillUserFeed(userId, feedEntries);
+        timelines.invalidate(userId);
+    }
+
+    @Override
+    public void mergeIntoUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        delegate.mergeIntoUserFeed(userId, feedEntries);
+        timelines.invalidate(userId);
+    }
+
+    @Override
+    public void removeFromUserFeed(Long userId, Collection<UUID> postIds) {
+        delegate.removeFromUserFeed(userId, postIds);
+        timelines.invalidate(userId);
+    }
+
+    @Override
+    public void restorePosts(List<FeedEntry> feedEntries) {
+        delegate.restorePosts(feedEntries);
+        entries.invalidateAll(feedEntries.stream().map(FeedEntry::postId).toList());
+    }
+
+    @Override
+    public void updateAuthor(Long authorId, String username, String avatarUrl) {
+        delegate.updateAuthor(authorId, username, avatarUrl);
+    }
+
+    @Override
+    public void incrementCounters(UUID postId, int likesDelta, int commentsDelta) {
+        delegate.incrementCounters(postId, likesDelta, commentsDelta);
+        entries.invalidate(postId);
+    }
+
+    @Override
+    public void rescorePost(UUID postId) {
+        delegate.rescorePost(postId);
+    }
+
+    @Override
+    public void removePost(UUID postId) {
+        delegate.removePost(postId);
+        entries.invalidate(postId);
+    }
+
+    @Override
+    public List<TimelineEntry> getUserTimeline(Long userId, int page, int size) {
+        long end = (long) (page + 1) * size;
+        if (end > timelineWindow) {
+            return delegate.getUserTimeline(userId, page, size);
+        }
+
+        // The head of the timeline is cached once and every page inside the window is cut from it
+        List<TimelineEntry> head = timelines.get(userId, id -> delegate.getUserTimeline(id, 0, timelineWindow));
+        int from = Math.min(page * size, head.size());
+        return head.subList(from, (int) Math.min(end, head.size()));
+    }
+
+    @Override
+    public List<TimelineEntry> getRankedTimeline(Long userId, int page, int size) {
+        return delegate.getRankedTimeline(userId, page, size);
+    }
+
+    @Override
+    public List<TimelineEntry> getUserTimelineAfter(Long userId, TimelineEntry bound, int size) {
+        return delegate.getUserTimelineAfter(userId, bound, size);
+    }
+
+    @Override
+    public List<TimelineEntry> getAuthorTimeline(Long authorId, int limit) {
+        return delegate.getAuthorTimeline(authorId, limit);
+    }
+
+    @Override
+    public List<TimelineEntry> getAuthorTimelineAfter(Long authorId, TimelineEntry bound, int limit) {
+        return delegate.getAuthorTimelineAfter(authorId, bound, limit);
+    }
+
+    @Override
+    public Set<Long> getPullAuthors() {
+        return delegate.getPullAuthors();
+    }
+
+    @Override
+    public Map<UUID, FeedEntry> getFeedEntries(Collection<UUID> postIds) {
+        return entries.getAll(postIds, missing -> delegate.getFeedEntries(Set.copyOf(missing)));
+    }
+
+    @Override
+    public void invalidateUserFeed(Long userId) {
+        delegate.invalidateUserFeed(userId);
+        timelines.invalidate(userId);
+    }
+}
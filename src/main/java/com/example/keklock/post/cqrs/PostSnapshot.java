@@ -0,0 +1,19 @@
+package com.example.keklock.post.cqrs;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PostSnapshot(
+    UUID postId,
+    Long authorId,
+    String authorUsername,
+    String authorAvatarUrl,
+    String content,
+    String imageUrl,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+    public PostSnapshot withAuthor(String username, String avatarUrl) {
+        return new PostSnapshot(postId, authorId, username, avatarUrl, content, imageUrl, createdAt, updatedAt);
+    }
+}
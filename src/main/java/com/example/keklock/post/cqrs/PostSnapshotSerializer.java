@@ -0,0 +1,167 @@
+package com.example.keklock.post.cqrs;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// Writes post snapshots as JSON or in a compact versioned binary layout; reads accept both,
+// so the format can be switched without flushing the cache
+public class PostSnapshotSerializer implements RedisSerializer<PostSnapshot> {
+
+    public enum Format { JSON, BINARY }
+
+    // JSON payloads always start with '{', so this byte cannot be mistaken for one
+    private static final byte MAGIC = (byte) 0xB5;
+    private static final byte VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private final Format format;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public PostSnapshotSerializer(Format format) {
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(PostSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        return format == Format.BINARY ? encode(snapshot) : writeJson(snapshot);
+    }
+
+    @Override
+    public PostSnapshot deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == MAGIC) {
+            return decode(bytes);
+        }
+        return readJson(bytes);
+    }
+
+    private byte[] writeJson(PostSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsBytes(snapshot);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write post snapshot as JSON", e);
+        }
+    }
+
+    private PostSnapshot readJson(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, PostSnapshot.class);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read post snapshot JSON", e);
+        }
+    }
+
+    private static byte[] encode(PostSnapshot snapshot) {
+        byte[] authorUsername = utf8(snapshot.authorUsername());
+        byte[] authorAvatarUrl = utf8(snapshot.authorAvatarUrl());
+        byte[] content = utf8(snapshot.content());
+        byte[] imageUrl = utf8(snapshot.imageUrl());
+
+        int size = 2 + 16 + 8 + 2 * 12
+            + sizeOf(authorUsername) + sizeOf(authorAvatarUrl) + sizeOf(content) + sizeOf(imageUrl);
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+            .put(MAGIC)
+            .put(VERSION)
+            .putLong(snapshot.postId().getMostSignificantBits())
+            .putLong(snapshot.postId().getLeastSignificantBits())
+            .putLong(snapshot.authorId());
+        putTime(buffer, snapshot.createdAt());
+        putTime(buffer, snapshot.updatedAt());
+        putBytes(buffer, authorUsername);
+        putBytes(buffer, authorAvatarUrl);
+        putBytes(buffer, content);
+        putBytes(buffer, imageUrl);
+        return buffer.array();
+    }
+
+    private static PostSnapshot decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported post snapshot version: " + version);
+        }
+
+        try {
+            UUID postId = new UUID(buffer.getLong(), buffer.getLong());
+            long authorId = buffer.getLong();
+            LocalDateTime createdAt = getTime(buffer);
+            LocalDateTime updatedAt = getTime(buffer);
+            return new PostSnapshot(
+                postId,
+                authorId,
+                getString(buffer),
+                getString(buffer),
+                getString(buffer),
+                getString(buffer),
+                createdAt,
+                updatedAt
+            );
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated post snapshot", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(Long.MIN_VALUE).putInt(0);
+        } else {
+            buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
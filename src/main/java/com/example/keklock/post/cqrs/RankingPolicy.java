@@ -0,0 +1,32 @@
+package com.example.keklock.post.cqrs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Component
+public class RankingPolicy {
+
+    @Value("${app.feed.ranking.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.feed.ranking.decay-hours:12}")
+    private double decayHours;
+
+    @Value("${app.feed.ranking.comment-weight:2}")
+    private double commentWeight;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Recency grows linearly while engagement counts logarithmically: a post decayHours newer
+    // outranks one with ten times the engagement, and the score never has to be recomputed as time passes
+    public double score(LocalDateTime createdAt, int likesCount, int commentsCount) {
+        double recency = createdAt.atZone(ZoneId.systemDefault()).toEpochSecond() / (decayHours * 3600);
+        double engagement = Math.log10(1 + Math.max(0, likesCount) + commentWeight * Math.max(0, commentsCount));
+        return recency + engagement;
+    }
+}
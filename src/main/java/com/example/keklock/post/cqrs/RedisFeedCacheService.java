@@ -1,13 +1,25 @@
 package com.example.keklock.post.cqrs;
 
-import com.example.keklock.profile.domain.Profile;
-import com.example.keklock.profile.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -18,93 +30,487 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "spring.data.redis.enabled", havingValue = "true")
 public class RedisFeedCacheService implements FeedCacheService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ProfileRepository profileRepository;
+    private final RedisTemplate<String, PostSnapshot> snapshotRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final FollowerIdSource followerIdSource;
+    private final RankingPolicy rankingPolicy;
+    private final FeedCacheMetrics feedCacheMetrics;
 
-    private static final String FEED_KEY_PREFIX = "feed:user:";
+    @Value("${app.feed.cache.max-entries-per-user:500}")
+    private int maxEntriesPerUser;
+
+    @Value("${app.feed.near-cache.enabled:false}")
+    private boolean publishInvalidations;
+
+    private static final String IMPLEMENTATION = "redis";
+    private static final String USER_KEY_PREFIX = "feed:";
+    private static final String POST_KEY_PREFIX = "feed:post:";
+    private static final String AUTHOR_KEY_PREFIX = "feed:author:";
+    private static final String PULL_AUTHORS_KEY = "feed:pull-authors";
     private static final long FEED_TTL_HOURS = 24;
+    private static final Duration FEED_TTL = Duration.ofHours(FEED_TTL_HOURS);
+
+    // Push, trim to the newest ARGV[3] entries and refresh the TTL as one atomic step per timeline,
+    // returning the resulting timeline length.
+    // Unless ARGV[5] is CREATE, a missing timeline is left missing and nil is returned: a timeline holding only
+    // the posts pushed since it expired would look warm and never be rebuilt. Only backfills create timelines.
+    // The optional ranked timeline KEYS[2] receives the post with score ARGV[6] and loses whatever was trimmed.
+    private static final String ADD_TO_FEED_SCRIPT = """
+        if ARGV[5] ~= 'CREATE' and redis.call('EXISTS', KEYS[1]) == 0 then
+            return nil
+        end
+        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+        local trimmed = {}
+        if KEYS[2] then
+            trimmed = redis.call('ZRANGE', KEYS[1], 0, -(tonumber(ARGV[3]) + 1))
+        end
+        redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1))
+        redis.call('EXPIRE', KEYS[1], ARGV[4])
+        if KEYS[2] then
+            redis.call('ZADD', KEYS[2], ARGV[6], ARGV[2])
+            if #trimmed > 0 then
+                redis.call('ZREM', KEYS[2], unpack(trimmed))
+            end
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+        end
+        return redis.call('ZCARD', KEYS[1])
+        """;
+    private static final RedisScript<Long> ADD_TO_FEED = new DefaultRedisScript<>(ADD_TO_FEED_SCRIPT, Long.class);
+    private static final String CREATE = "CREATE";
+    private static final String IF_EXISTS = "IF_EXISTS";
+
+    // Counters of posts that are not cached are left alone; creating them here would seed a later
+    // store with the delta instead of the real count. INCRBY keeps the key's TTL.
+    private static final RedisScript<Long> INCREMENT_IF_EXISTS = new DefaultRedisScript<>("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+            return redis.call('INCRBY', KEYS[1], ARGV[1])
+        end
+        return nil
+        """, Long.class);
 
+    // Both timelines of a user share the {userId} hash tag, so ADD_TO_FEED touches a single Redis Cluster slot
     private String getUserFeedKey(Long userId) {
-        return FEED_KEY_PREFIX + userId;
+        return USER_KEY_PREFIX + "{" + userId + "}:timeline";
+    }
+
+    private String getRankedFeedKey(Long userId) {
+        return USER_KEY_PREFIX + "{" + userId + "}:ranked";
+    }
+
+    private String getPostKey(UUID postId) {
+        return POST_KEY_PREFIX + postId;
+    }
+
+    private String getLikesKey(UUID postId) {
+        return POST_KEY_PREFIX + postId + ":likes";
+    }
+
+    private String getCommentsKey(UUID postId) {
+        return POST_KEY_PREFIX + postId + ":comments";
+    }
+
+    private String getPostFeedsKey(UUID postId) {
+        return POST_KEY_PREFIX + postId + ":feeds";
+    }
+
+    private String getAuthorPostsKey(Long authorId) {
+        return AUTHOR_KEY_PREFIX + authorId + ":posts";
     }
 
     @Override
     public void addToFollowerFeeds(Long authorId, FeedEntry feedEntry) {
-        profileRepository.findById(authorId).ifPresentOrElse(
-            author -> {
-                author.getFollowers().forEach(follower -> {
-                    String key = getUserFeedKey(follower.getId());
-                    redisTemplate.opsForList().leftPush(key, feedEntry);
-                    redisTemplate.expire(key, FEED_TTL_HOURS, TimeUnit.HOURS);
-                    log.debug("Redis: Added post {} to user {}'s feed", feedEntry.postId(), follower.getId());
-                });
-
-                String authorKey = getUserFeedKey(authorId);
-                redisTemplate.opsForList().leftPush(authorKey, feedEntry);
-                redisTemplate.expire(authorKey, FEED_TTL_HOURS, TimeUnit.HOURS);
-                log.debug("Redis: Added post {} to author {}'s own feed", feedEntry.postId(), authorId);
-            },
-            () -> log.warn("Author not found with id: {}", authorId)
-        );
-    }
-
-    @Override
-    public void updateFeedEntry(UUID postId, FeedEntry updatedEntry) {
-        Set<String> keys = redisTemplate.keys(FEED_KEY_PREFIX + "*");
-        if (keys == null) return;
-
-        keys.forEach(key -> {
-            List<Object> feed = redisTemplate.opsForList().range(key, 0, -1);
-            if (feed == null) return;
-
-            for (int i = 0; i < feed.size(); i++) {
-                if (feed.get(i) instanceof FeedEntry entry && entry.postId().equals(postId)) {
-                    redisTemplate.opsForList().set(key, i, updatedEntry);
-                    log.debug("Redis: Updated post {} in key {}", postId, key);
-                    break;
+        storePost(authorId, feedEntry);
+
+        String sha = loadScript(ADD_TO_FEED_SCRIPT);
+        long followers = followerIdSource.forEachBatch(authorId, batch -> fanOut(sha, feedEntry, batch));
+        feedCacheMetrics.recordFanout(IMPLEMENTATION, followers);
+        log.debug("Redis: Added post {} to {} follower feeds", feedEntry.postId(), followers);
+    }
+
+    private String loadScript(String script) {
+        return stringRedisTemplate.execute((RedisCallback<String>) connection ->
+            connection.scriptingCommands().scriptLoad(bytes(script)));
+    }
+
+    private void fanOut(String sha, FeedEntry feedEntry, List<Long> followerIds) {
+        byte[] postId = bytes(feedEntry.postId().toString());
+        byte[] score = bytes(String.valueOf(TimelineEntry.scoreOf(feedEntry.createdAt())));
+        byte[] maxEntries = bytes(String.valueOf(maxEntriesPerUser));
+        byte[] ttl = bytes(String.valueOf(FEED_TTL.toSeconds()));
+        byte[] rankScore = bytes(String.valueOf(rankScoreOf(feedEntry)));
+        byte[] ifExists = bytes(IF_EXISTS);
+        byte[] indexKey = bytes(getPostFeedsKey(feedEntry.postId()));
+        byte[][] feedOwners = followerIds.stream().map(id -> bytes(id.toString())).toArray(byte[][]::new);
+        boolean ranked = rankingPolicy.isEnabled();
+
+        // One round trip per batch instead of three per follower
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long followerId : followerIds) {
+                byte[] feedKey = bytes(getUserFeedKey(followerId));
+                if (ranked) {
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 2,
+                        feedKey, bytes(getRankedFeedKey(followerId)), score, postId, maxEntries, ttl, ifExists, rankScore);
+                } else {
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        feedKey, score, postId, maxEntries, ttl, ifExists);
+                }
+            }
+            connection.setCommands().sAdd(indexKey, feedOwners);
+            connection.keyCommands().expire(indexKey, FEED_TTL.toSeconds());
+            if (publishInvalidations) {
+                connection.publish(bytes(NearCacheFeedCacheService.INVALIDATION_CHANNEL),
+                    bytes(NearCacheFeedCacheService.usersMessage(followerIds)));
+            }
+            return null;
+        });
+        results.stream()
+            .limit(followerIds.size())
+            .filter(Long.class::isInstance)
+            .forEach(length -> feedCacheMetrics.recordTimelineLength(IMPLEMENTATION, (Long) length));
+    }
+
+    @Override
+    public void addToAuthorTimeline(Long authorId, FeedEntry feedEntry) {
+        storePost(authorId, feedEntry);
+        stringRedisTemplate.opsForSet().add(PULL_AUTHORS_KEY, authorId.toString());
+        log.debug("Redis: Stored post {} for pull-based delivery of author {}", feedEntry.postId(), authorId);
+    }
+
+    @Override
+    public void backfillUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        if (feedEntries.isEmpty()) return;
+
+        String sha = loadScript(ADD_TO_FEED_SCRIPT);
+        byte[] feedKey = bytes(getUserFeedKey(userId));
+        byte[] rankedKey = bytes(getRankedFeedKey(userId));
+        byte[] feedOwner = bytes(userId.toString());
+        byte[] maxEntries = bytes(String.valueOf(maxEntriesPerUser));
+        byte[] ttl = bytes(String.valueOf(FEED_TTL.toSeconds()));
+        byte[] create = bytes(CREATE);
+        boolean ranked = rankingPolicy.isEnabled();
+
+        // The whole rebuild is one round trip; the same script as fan-out keeps both timelines trimmed together
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            feedEntries.forEach(feedEntry -> {
+                writeRecords(connection, feedEntry);
+                byte[] postId = bytes(feedEntry.postId().toString());
+                byte[] score = bytes(String.valueOf(TimelineEntry.scoreOf(feedEntry.createdAt())));
+                if (ranked) {
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 2, feedKey, rankedKey,
+                        score, postId, maxEntries, ttl, create, bytes(String.valueOf(rankScoreOf(feedEntry))));
+                } else {
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1, feedKey,
+                        score, postId, maxEntries, ttl, create);
                 }
+                byte[] indexKey = bytes(getPostFeedsKey(feedEntry.postId()));
+                connection.setCommands().sAdd(indexKey, feedOwner);
+                connection.keyCommands().expire(indexKey, FEED_TTL.toSeconds());
+            });
+            return null;
+        });
+        publishUsers(List.of(userId));
+        log.debug("Redis: Backfilled {} posts into user {}'s feed", feedEntries.size(), userId);
+    }
+
+    @Override
+    public void mergeIntoUserFeed(Long userId, List<FeedEntry> feedEntries) {
+        // A cold feed is rebuilt in full on its next read
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(getUserFeedKey(userId)))) {
+            backfillUserFeed(userId, feedEntries);
+        }
+    }
+
+    @Override
+    public void removeFromUserFeed(Long userId, Collection<UUID> postIds) {
+        if (postIds.isEmpty()) return;
+
+        byte[] feedKey = bytes(getUserFeedKey(userId));
+        byte[] rankedKey = bytes(getRankedFeedKey(userId));
+        byte[] feedOwner = bytes(userId.toString());
+        byte[][] members = postIds.stream().map(postId -> bytes(postId.toString())).toArray(byte[][]::new);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRem(feedKey, members);
+            connection.zSetCommands().zRem(rankedKey, members);
+            postIds.forEach(postId -> connection.setCommands().sRem(bytes(getPostFeedsKey(postId)), feedOwner));
+            return null;
+        });
+        publishUsers(List.of(userId));
+        log.debug("Redis: Removed {} posts from user {}'s feed", postIds.size(), userId);
+    }
+
+    @Override
+    public void restorePosts(List<FeedEntry> feedEntries) {
+        if (feedEntries.isEmpty()) return;
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            feedEntries.forEach(feedEntry -> writeRecords(connection, feedEntry));
+            return null;
+        });
+        publishPosts(feedEntries.stream().map(FeedEntry::postId).toList());
+        log.debug("Redis: Restored {} expired post records", feedEntries.size());
+    }
+
+    // The snapshot and both counters always get the same fresh TTL, so a post never outlives its counters.
+    // Counters that already exist keep their live value. Every cached post is also indexed under its author,
+    // whichever path stored it, so author removals and renames reach backfilled and merged posts too.
+    private void writeRecords(RedisConnection connection, FeedEntry feedEntry) {
+        UUID postId = feedEntry.postId();
+        Expiration ttl = Expiration.from(FEED_TTL);
+        connection.stringCommands().set(bytes(getPostKey(postId)), serialize(feedEntry.snapshot()), ttl, SetOption.upsert());
+        writeCounter(connection, bytes(getLikesKey(postId)), feedEntry.likesCount(), ttl);
+        writeCounter(connection, bytes(getCommentsKey(postId)), feedEntry.commentsCount(), ttl);
+
+        byte[] authorKey = bytes(getAuthorPostsKey(feedEntry.authorId()));
+        connection.zSetCommands().zAdd(authorKey, TimelineEntry.scoreOf(feedEntry.createdAt()), bytes(postId.toString()));
+        connection.zSetCommands().zRemRange(authorKey, 0, -(maxEntriesPerUser + 1L));
+        connection.keyCommands().expire(authorKey, ttl.getExpirationTimeInSeconds());
+    }
+
+    private static void writeCounter(RedisConnection connection, byte[] key, int value, Expiration ttl) {
+        connection.stringCommands().set(key, bytes(String.valueOf(value)), ttl, SetOption.ifAbsent());
+        connection.keyCommands().expire(key, ttl.getExpirationTimeInSeconds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(PostSnapshot snapshot) {
+        return ((RedisSerializer<PostSnapshot>) snapshotRedisTemplate.getValueSerializer()).serialize(snapshot);
+    }
+
+    private void storePost(Long authorId, FeedEntry feedEntry) {
+        UUID postId = feedEntry.postId();
+        // Engagement may have been counted before the creation event was processed
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writeRecords(connection, feedEntry);
+            return null;
+        });
+
+        // The author's own feed gets the post only if it is cached; a cold one is rebuilt on its next read
+        List<String> keys = rankingPolicy.isEnabled()
+            ? List.of(getUserFeedKey(authorId), getRankedFeedKey(authorId))
+            : List.of(getUserFeedKey(authorId));
+        stringRedisTemplate.execute(ADD_TO_FEED, keys,
+            String.valueOf(TimelineEntry.scoreOf(feedEntry.createdAt())), postId.toString(),
+            String.valueOf(maxEntriesPerUser), String.valueOf(FEED_TTL.toSeconds()), IF_EXISTS,
+            String.valueOf(rankScoreOf(feedEntry)));
+
+        String indexKey = getPostFeedsKey(postId);
+        stringRedisTemplate.opsForSet().add(indexKey, authorId.toString());
+        stringRedisTemplate.expire(indexKey, FEED_TTL_HOURS, TimeUnit.HOURS);
+        publishUsers(List.of(authorId));
+        log.debug("Redis: Added post {} to author {}'s own feed", postId, authorId);
+    }
+
+    private double rankScoreOf(FeedEntry feedEntry) {
+        return rankingPolicy.score(feedEntry.createdAt(), feedEntry.likesCount(), feedEntry.commentsCount());
+    }
+
+    private void publishUsers(Collection<Long> userIds) {
+        if (publishInvalidations && !userIds.isEmpty()) {
+            stringRedisTemplate.convertAndSend(NearCacheFeedCacheService.INVALIDATION_CHANNEL,
+                NearCacheFeedCacheService.usersMessage(userIds));
+        }
+    }
+
+    private void publishPosts(Collection<?> postIds) {
+        if (publishInvalidations && !postIds.isEmpty()) {
+            stringRedisTemplate.convertAndSend(NearCacheFeedCacheService.INVALIDATION_CHANNEL,
+                NearCacheFeedCacheService.postsMessage(postIds));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void updateAuthor(Long authorId, String username, String avatarUrl) {
+        Set<String> postIds = stringRedisTemplate.opsForZSet().range(getAuthorPostsKey(authorId), 0, -1);
+        if (postIds == null || postIds.isEmpty()) return;
+
+        postIds.forEach(postId -> {
+            String key = POST_KEY_PREFIX + postId;
+            PostSnapshot snapshot = snapshotRedisTemplate.opsForValue().get(key);
+            if (snapshot != null) {
+                snapshotRedisTemplate.opsForValue().setIfPresent(key, snapshot.withAuthor(username, avatarUrl), FEED_TTL);
             }
         });
+        publishPosts(postIds);
+        log.debug("Redis: Updated author {} on {} cached posts", authorId, postIds.size());
+    }
+
+    @Override
+    public void incrementCounters(UUID postId, int likesDelta, int commentsDelta) {
+        if (likesDelta != 0) {
+            stringRedisTemplate.execute(INCREMENT_IF_EXISTS, List.of(getLikesKey(postId)), String.valueOf(likesDelta));
+        }
+        if (commentsDelta != 0) {
+            stringRedisTemplate.execute(INCREMENT_IF_EXISTS, List.of(getCommentsKey(postId)), String.valueOf(commentsDelta));
+        }
     }
 
     @Override
-    public void removeFeedEntry(UUID postId, Long userId) {
-        String key = getUserFeedKey(userId);
-        List<Object> feed = redisTemplate.opsForList().range(key, 0, -1);
-        if (feed == null) return;
+    public void rescorePost(UUID postId) {
+        if (!rankingPolicy.isEnabled()) return;
+
+        FeedEntry feedEntry = getFeedEntries(List.of(postId)).get(postId);
+        Set<String> feedOwners = stringRedisTemplate.opsForSet().members(getPostFeedsKey(postId));
+        if (feedEntry == null || feedOwners == null || feedOwners.isEmpty()) return;
+
+        double rankScore = rankScoreOf(feedEntry);
+        byte[] member = bytes(postId.toString());
+        // XX keeps the update from resurrecting entries already trimmed or removed from a timeline
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            feedOwners.forEach(userId -> connection.zSetCommands()
+                .zAdd(bytes(getRankedFeedKey(Long.valueOf(userId))), rankScore, member, RedisZSetCommands.ZAddArgs.ifExists()));
+            return null;
+        });
+        log.debug("Redis: Rescored post {} in {} ranked feeds", postId, feedOwners.size());
+    }
 
-        feed.stream()
-            .filter(obj -> obj instanceof FeedEntry)
-            .map(obj -> (FeedEntry) obj)
-            .filter(entry -> entry.postId().equals(postId))
-            .findFirst()
-            .ifPresent(entry -> {
-                redisTemplate.opsForList().remove(key, 1, entry);
-                log.debug("Redis: Removed post {} from user {}'s feed", postId, userId);
+    @Override
+    public void removePost(UUID postId) {
+        String indexKey = getPostFeedsKey(postId);
+        Set<String> feedOwners = stringRedisTemplate.opsForSet().members(indexKey);
+        if (feedOwners != null) {
+            feedOwners.forEach(userId -> {
+                stringRedisTemplate.opsForZSet().remove(getUserFeedKey(Long.valueOf(userId)), postId.toString());
+                stringRedisTemplate.opsForZSet().remove(getRankedFeedKey(Long.valueOf(userId)), postId.toString());
             });
+        }
+
+        PostSnapshot snapshot = snapshotRedisTemplate.opsForValue().get(getPostKey(postId));
+        if (snapshot != null) {
+            stringRedisTemplate.opsForZSet().remove(getAuthorPostsKey(snapshot.authorId()), postId.toString());
+        }
+        stringRedisTemplate.delete(List.of(getPostKey(postId), getLikesKey(postId), getCommentsKey(postId), indexKey));
+        publishPosts(List.of(postId));
+        if (feedOwners != null) {
+            publishUsers(feedOwners.stream().map(Long::valueOf).toList());
+        }
+        log.debug("Redis: Removed post {} from {} feeds", postId, feedOwners == null ? 0 : feedOwners.size());
+    }
+
+    @Override
+    public List<TimelineEntry> getUserTimeline(Long userId, int page, int size) {
+        long offset = (long) page * size;
+
+        Set<ZSetOperations.TypedTuple<String>> timeline = stringRedisTemplate.opsForZSet()
+            .reverseRangeByScoreWithScores(getUserFeedKey(userId), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, offset, size);
+        return toTimelineEntries(timeline);
+    }
+
+    @Override
+    public List<TimelineEntry> getRankedTimeline(Long userId, int page, int size) {
+        long offset = (long) page * size;
+        Set<ZSetOperations.TypedTuple<String>> timeline = stringRedisTemplate.opsForZSet()
+            .reverseRangeWithScores(getRankedFeedKey(userId), offset, offset + size - 1);
+        return toTimelineEntries(timeline);
+    }
+
+    @Override
+    public List<TimelineEntry> getUserTimelineAfter(Long userId, TimelineEntry bound, int size) {
+        return rangeAfter(getUserFeedKey(userId), bound, size);
+    }
+
+    private List<TimelineEntry> rangeAfter(String key, TimelineEntry bound, int limit) {
+        // Entries sharing the bound's score are ordered by member, so they are filtered client-side
+        Set<ZSetOperations.TypedTuple<String>> ties = stringRedisTemplate.opsForZSet()
+            .rangeByScoreWithScores(key, bound.score(), bound.score());
+        Set<ZSetOperations.TypedTuple<String>> older = stringRedisTemplate.opsForZSet()
+            .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, Math.nextDown(bound.score()), 0, limit);
+
+        List<TimelineEntry> result = new ArrayList<>(toTimelineEntries(ties).stream()
+            .filter(entry -> entry.compareTo(bound) > 0)
+            .sorted()
+            .toList());
+        result.addAll(toTimelineEntries(older));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    @Override
+    public List<TimelineEntry> getAuthorTimeline(Long authorId, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> timeline = stringRedisTemplate.opsForZSet()
+            .reverseRangeWithScores(getAuthorPostsKey(authorId), 0, limit - 1L);
+        return toTimelineEntries(timeline);
+    }
+
+    @Override
+    public List<TimelineEntry> getAuthorTimelineAfter(Long authorId, TimelineEntry bound, int limit) {
+        return rangeAfter(getAuthorPostsKey(authorId), bound, limit);
     }
 
     @Override
-    public List<FeedEntry> getUserFeed(Long userId, int page, int size) {
-        String key = getUserFeedKey(userId);
-        long start = (long) page * size;
-        long end = start + size - 1;
+    public Set<Long> getPullAuthors() {
+        Set<String> authorIds = stringRedisTemplate.opsForSet().members(PULL_AUTHORS_KEY);
+        if (authorIds == null) {
+            return Collections.emptySet();
+        }
+        return authorIds.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
 
-        List<Object> feed = redisTemplate.opsForList().range(key, start, end);
-        if (feed == null || feed.isEmpty()) {
+    private List<TimelineEntry> toTimelineEntries(Set<ZSetOperations.TypedTuple<String>> timeline) {
+        if (timeline == null || timeline.isEmpty()) {
             return Collections.emptyList();
         }
 
-        return feed.stream()
-            .filter(obj -> obj instanceof FeedEntry)
-            .map(obj -> (FeedEntry) obj)
-            .collect(Collectors.toList());
+        return timeline.stream()
+            .map(tuple -> new TimelineEntry(UUID.fromString(tuple.getValue()), tuple.getScore()))
+            .toList();
+    }
+
+    @Override
+    public Map<UUID, FeedEntry> getFeedEntries(Collection<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<UUID> ids = new ArrayList<>(postIds);
+        byte[][] keys = new byte[ids.size() * 3][];
+        for (int i = 0; i < ids.size(); i++) {
+            UUID postId = ids.get(i);
+            keys[i * 3] = rawKey(getPostKey(postId));
+            keys[i * 3 + 1] = rawKey(getLikesKey(postId));
+            keys[i * 3 + 2] = rawKey(getCommentsKey(postId));
+        }
+
+        // Records and counters come back from a single MGET round trip
+        List<byte[]> values = snapshotRedisTemplate.execute((RedisCallback<List<byte[]>>) connection -> mGet(connection, keys));
+        if (values == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<UUID, FeedEntry> entries = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            PostSnapshot snapshot = values.get(i * 3) == null
+                ? null
+                : (PostSnapshot) snapshotRedisTemplate.getValueSerializer().deserialize(values.get(i * 3));
+            if (snapshot != null) {
+                entries.put(ids.get(i), FeedEntry.of(
+                    snapshot,
+                    parseCounter(values.get(i * 3 + 1)),
+                    parseCounter(values.get(i * 3 + 2))
+                ));
+            }
+        }
+        return entries;
+    }
+
+    private static List<byte[]> mGet(RedisConnection connection, byte[][] keys) {
+        return connection.stringCommands().mGet(keys);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int parseCounter(byte[] value) {
+        return value == null ? 0 : Math.max(0, Integer.parseInt(new String(value, StandardCharsets.UTF_8)));
     }
 
     @Override
     public void invalidateUserFeed(Long userId) {
-        String key = getUserFeedKey(userId);
-        redisTemplate.delete(key);
+        stringRedisTemplate.delete(List.of(getUserFeedKey(userId), getRankedFeedKey(userId)));
+        publishUsers(List.of(userId));
         log.debug("Redis: Invalidated feed cache for user: {}", userId);
     }
 }
@@ -0,0 +1,24 @@
+package com.example.keklock.post.cqrs;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+public record TimelineEntry(
+    UUID postId,
+    double score
+) implements Comparable<TimelineEntry> {
+
+    public static double scoreOf(LocalDateTime createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public int compareTo(TimelineEntry other) {
+        int byScore = Double.compare(other.score, this.score);
+        if (byScore != 0) {
+            return byScore;
+        }
+        return other.postId.toString().compareTo(this.postId.toString());
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -15,7 +16,9 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_author_created_at", columnList = "author_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,6 +45,15 @@ public class Post {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Maintained by atomic UPDATE queries in PostRepository, never written through the entity
+    @ColumnDefault("0")
+    @Column(name = "likes_count", nullable = false, updatable = false)
+    private int likesCount;
+
+    @ColumnDefault("0")
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    private int commentsCount;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments = new ArrayList<>();
 
@@ -73,24 +85,4 @@ public class Post {
         comments.remove(comment);
         comment.setPost(null);
     }
-
-    public void addLike(Profile profile) {
-        likes.add(profile);
-    }
-
-    public void removeLike(Profile profile) {
-        likes.remove(profile);
-    }
-
-    public boolean isLikedBy(Profile profile) {
-        return likes.contains(profile);
-    }
-
-    public int getLikesCount() {
-        return likes.size();
-    }
-
-    public int getCommentsCount() {
-        return comments.size();
-    }
 }
@@ -0,0 +1,10 @@
+package com.example.keklock.post.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PostBatchResponse(
+    List<PostResponse> posts,
+    List<UUID> missingIds
+) {
+}
@@ -0,0 +1,47 @@
+package com.example.keklock.post.dto;
+
+import com.example.keklock.common.dto.CursorPage;
+import com.example.keklock.common.exception.InvalidOperationException;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+public record PostCursor(
+    LocalDateTime createdAt,
+    UUID postId
+) {
+    private static final String SEPARATOR = "|";
+
+    public static PostCursor of(PostResponse post) {
+        return new PostCursor(post.createdAt(), post.id());
+    }
+
+    public static PostCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new PostCursor(
+                LocalDateTime.parse(decoded.substring(0, separator)),
+                UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidOperationException("Invalid cursor");
+        }
+    }
+
+    public static CursorPage<PostResponse> page(Slice<PostResponse> slice) {
+        List<PostResponse> content = slice.getContent();
+        String nextCursor = content.isEmpty() ? null : of(content.get(content.size() - 1)).encode();
+        return CursorPage.of(slice, nextCursor);
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -14,7 +14,8 @@ public record PostResponse(
     int likesCount,
     int commentsCount,
     LocalDateTime createdAt,
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    boolean likedByViewer
 ) {
     public static PostResponse from(Post post) {
         return new PostResponse(
@@ -26,7 +27,13 @@ public record PostResponse(
             post.getLikesCount(),
             post.getCommentsCount(),
             post.getCreatedAt(),
-            post.getUpdatedAt()
+            post.getUpdatedAt(),
+            false
         );
     }
+
+    public PostResponse withLikedByViewer(boolean likedByViewer) {
+        return new PostResponse(id, authorUsername, authorAvatarUrl, content, imageUrl,
+            likesCount, commentsCount, createdAt, updatedAt, likedByViewer);
+    }
 }
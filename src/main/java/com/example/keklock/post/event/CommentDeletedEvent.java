@@ -0,0 +1,16 @@
+package com.example.keklock.post.event;
+
+import com.example.keklock.common.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record CommentDeletedEvent(
+    UUID commentId,
+    UUID postId,
+    LocalDateTime occurredOn
+) implements DomainEvent {
+    public CommentDeletedEvent(UUID commentId, UUID postId) {
+        this(commentId, postId, LocalDateTime.now());
+    }
+}
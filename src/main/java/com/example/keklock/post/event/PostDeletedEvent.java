@@ -0,0 +1,16 @@
+package com.example.keklock.post.event;
+
+import com.example.keklock.common.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PostDeletedEvent(
+    UUID postId,
+    Long authorId,
+    LocalDateTime occurredOn
+) implements DomainEvent {
+    public PostDeletedEvent(UUID postId, Long authorId) {
+        this(postId, authorId, LocalDateTime.now());
+    }
+}
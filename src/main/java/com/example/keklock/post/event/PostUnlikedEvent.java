@@ -0,0 +1,16 @@
+package com.example.keklock.post.event;
+
+import com.example.keklock.common.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PostUnlikedEvent(
+    UUID postId,
+    Long userId,
+    LocalDateTime occurredOn
+) implements DomainEvent {
+    public PostUnlikedEvent(UUID postId, Long userId) {
+        this(postId, userId, LocalDateTime.now());
+    }
+}
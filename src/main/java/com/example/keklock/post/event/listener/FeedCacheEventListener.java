@@ -1,12 +1,21 @@
 package com.example.keklock.post.event.listener;
 
+import com.example.keklock.post.cqrs.EngagementCoalescer;
+import com.example.keklock.post.cqrs.FanoutPolicy;
 import com.example.keklock.post.cqrs.FeedCacheService;
 import com.example.keklock.post.cqrs.FeedEntry;
+import com.example.keklock.post.cqrs.FeedQueryService;
 import com.example.keklock.post.domain.Post;
 import com.example.keklock.post.event.CommentAddedEvent;
+import com.example.keklock.post.event.CommentDeletedEvent;
 import com.example.keklock.post.event.PostCreatedEvent;
+import com.example.keklock.post.event.PostDeletedEvent;
 import com.example.keklock.post.event.PostLikedEvent;
+import com.example.keklock.post.event.PostUnlikedEvent;
 import com.example.keklock.post.repository.PostRepository;
+import com.example.keklock.profile.event.ProfileFollowedEvent;
+import com.example.keklock.profile.event.ProfileUnfollowedEvent;
+import com.example.keklock.profile.event.ProfileUpdatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -19,17 +28,26 @@ import org.springframework.stereotype.Component;
 public class FeedCacheEventListener {
 
     private final FeedCacheService feedCacheService;
+    private final FanoutPolicy fanoutPolicy;
+    private final EngagementCoalescer engagementCoalescer;
     private final PostRepository postRepository;
+    private final FeedQueryService feedQueryService;
 
     @Async
     @EventListener
     public void handlePostCreated(PostCreatedEvent event) {
         log.info("CQRS: Adding post {} to followers' feeds", event.postId());
 
-        postRepository.findById(event.postId()).ifPresentOrElse(
+        postRepository.findWithAuthorById(event.postId()).ifPresentOrElse(
             post -> {
-                FeedEntry feedEntry = createFeedEntryFromPost(post);
-                feedCacheService.addToFollowerFeeds(event.authorId(), feedEntry);
+                FeedEntry feedEntry = createFeedEntryFromNewPost(post);
+                if (fanoutPolicy.shouldFanOut(event.authorId())) {
+                    feedCacheService.addToFollowerFeeds(event.authorId(), feedEntry);
+                } else {
+                    log.info("CQRS: Author {} is above the fan-out threshold, followers will pull post {}",
+                        event.authorId(), event.postId());
+                    feedCacheService.addToAuthorTimeline(event.authorId(), feedEntry);
+                }
             },
             () -> log.warn("Post not found: {}", event.postId())
         );
@@ -38,40 +56,70 @@ public class FeedCacheEventListener {
     @Async
     @EventListener
     public void handlePostLiked(PostLikedEvent event) {
-        log.info("CQRS: Updating like count for post {}", event.postId());
+        log.debug("CQRS: Incrementing like count for post {}", event.postId());
+        engagementCoalescer.record(event.postId(), 1, 0);
+    }
 
-        postRepository.findById(event.postId()).ifPresentOrElse(
-            post -> {
-                FeedEntry updatedEntry = createFeedEntryFromPost(post);
-                feedCacheService.updateFeedEntry(event.postId(), updatedEntry);
-            },
-            () -> log.warn("Post not found: {}", event.postId())
-        );
+    @Async
+    @EventListener
+    public void handlePostUnliked(PostUnlikedEvent event) {
+        log.debug("CQRS: Decrementing like count for post {}", event.postId());
+        engagementCoalescer.record(event.postId(), -1, 0);
     }
 
     @Async
     @EventListener
     public void handleCommentAdded(CommentAddedEvent event) {
-        log.info("CQRS: Updating comment count for post {}", event.postId());
+        log.debug("CQRS: Incrementing comment count for post {}", event.postId());
+        engagementCoalescer.record(event.postId(), 0, 1);
+    }
 
-        postRepository.findById(event.postId()).ifPresentOrElse(
-            post -> {
-                FeedEntry updatedEntry = createFeedEntryFromPost(post);
-                feedCacheService.updateFeedEntry(event.postId(), updatedEntry);
-            },
-            () -> log.warn("Post not found: {}", event.postId())
-        );
+    @Async
+    @EventListener
+    public void handleCommentDeleted(CommentDeletedEvent event) {
+        log.debug("CQRS: Decrementing comment count for post {}", event.postId());
+        engagementCoalescer.record(event.postId(), 0, -1);
+    }
+
+    @Async
+    @EventListener
+    public void handlePostDeleted(PostDeletedEvent event) {
+        log.info("CQRS: Removing post {} from feeds", event.postId());
+        feedCacheService.removePost(event.postId());
+    }
+
+    @Async
+    @EventListener
+    public void handleProfileUpdated(ProfileUpdatedEvent event) {
+        log.info("CQRS: Refreshing author details of user {} on cached posts", event.profileId());
+        feedCacheService.updateAuthor(event.profileId(), event.username(), event.avatarUrl());
+    }
+
+    @Async
+    @EventListener
+    public void handleProfileFollowed(ProfileFollowedEvent event) {
+        log.info("CQRS: Merging posts of user {} into user {}'s feed", event.followedId(), event.followerId());
+        feedQueryService.mergeFollowedAuthor(event.followerId(), event.followedId());
+    }
+
+    @Async
+    @EventListener
+    public void handleProfileUnfollowed(ProfileUnfollowedEvent event) {
+        log.info("CQRS: Removing posts of user {} from user {}'s feed", event.unfollowedId(), event.followerId());
+        feedQueryService.removeFollowedAuthor(event.followerId(), event.unfollowedId());
     }
 
-    private FeedEntry createFeedEntryFromPost(Post post) {
+    private FeedEntry createFeedEntryFromNewPost(Post post) {
+        // Engagement that races the creation event arrives as counter increments
         return new FeedEntry(
             post.getId(),
+            post.getAuthor().getId(),
             post.getAuthor().getUsername(),
             post.getAuthor().getAvatarUrl(),
             post.getContent(),
             post.getImageUrl(),
-            post.getLikesCount(),
-            post.getCommentsCount(),
+            0,
+            0,
             post.getCreatedAt(),
             post.getUpdatedAt()
         );
@@ -0,0 +1,64 @@
+package com.example.keklock.post.event.listener;
+
+import com.example.keklock.post.event.CommentAddedEvent;
+import com.example.keklock.post.event.CommentDeletedEvent;
+import com.example.keklock.post.event.PostDeletedEvent;
+import com.example.keklock.post.event.PostLikedEvent;
+import com.example.keklock.post.event.PostUnlikedEvent;
+import com.example.keklock.post.service.PostCache;
+import com.example.keklock.post.service.PostCacheBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+// Evicts after commit, so a concurrent read cannot reload and cache the pre-change row
+@Component
+@RequiredArgsConstructor
+public class PostCacheEventListener {
+
+    private final PostCache postCache;
+    private final ObjectProvider<PostCacheBroadcaster> broadcaster;
+
+    // In write-behind mode likes_count only changes on flush, which evicts by itself;
+    // evicting here would just reload and cache the unflushed count
+    @Value("${app.posts.like-counter.mode:direct}")
+    private String likeCounterMode;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePostLiked(PostLikedEvent event) {
+        invalidateLikes(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePostUnliked(PostUnlikedEvent event) {
+        invalidateLikes(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleCommentAdded(CommentAddedEvent event) {
+        postCache.invalidate(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleCommentDeleted(CommentDeletedEvent event) {
+        postCache.invalidate(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePostDeleted(PostDeletedEvent event) {
+        postCache.invalidate(event.postId());
+        // Other nodes would keep serving the deleted post until the TTL
+        broadcaster.ifAvailable(it -> it.publish(List.of(event.postId())));
+    }
+
+    private void invalidateLikes(UUID postId) {
+        if (!"write-behind".equals(likeCounterMode)) {
+            postCache.invalidate(postId);
+        }
+    }
+}
@@ -1,24 +1,112 @@
 package com.example.keklock.post.repository;
 
 import com.example.keklock.post.domain.Post;
+import com.example.keklock.post.dto.PostResponse;
 import com.example.keklock.profile.domain.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
     Page<Post> findByAuthorOrderByCreatedAtDesc(Profile author, Pageable pageable);
 
-    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.author IN :authors ORDER BY p.createdAt DESC")
-    Page<Post> findByAuthorsIn(@Param("authors") List<Profile> authors, Pageable pageable);
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id = :postId")
+    Optional<Post> findWithAuthorById(@Param("postId") UUID postId);
 
-    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.author.username = :username ORDER BY p.createdAt DESC")
-    Page<Post> findByAuthorUsername(@Param("username") String username, Pageable pageable);
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id IN :postIds")
+    List<Post> findWithAuthorByIdIn(@Param("postIds") Collection<UUID> postIds);
+
+    // The user's own posts plus those of everyone they follow, resolved against follows in the database
+    String FEED_AUTHORS = """
+        (p.author.id = :userId
+        OR p.author.id IN (SELECT f.id FROM Profile u JOIN u.following f WHERE u.id = :userId))
+        """;
+
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE " + FEED_AUTHORS + "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findFeedSlice(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.author.id = :authorId ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findSliceByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    // Read-only listings: PostResponse rows straight from one query, with no managed entities behind them
+    String POST_RESPONSE = """
+        SELECT new com.example.keklock.post.dto.PostResponse(
+            p.id, a.username, a.avatarUrl, p.content, p.imageUrl,
+            p.likesCount, p.commentsCount, p.createdAt, p.updatedAt, false)
+        FROM Post p JOIN p.author a
+        """;
+
+    @Query(POST_RESPONSE + "WHERE p.id = :postId")
+    Optional<PostResponse> findResponseById(@Param("postId") UUID postId);
+
+    @Query(POST_RESPONSE + "WHERE p.id IN :postIds")
+    List<PostResponse> findResponsesByIdIn(@Param("postIds") Collection<UUID> postIds);
+
+    @Query(value = POST_RESPONSE + "WHERE " + FEED_AUTHORS + "ORDER BY p.createdAt DESC",
+        countQuery = "SELECT count(p) FROM Post p WHERE " + FEED_AUTHORS)
+    Page<PostResponse> findFeedResponses(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = POST_RESPONSE + "WHERE a.username = :username ORDER BY p.createdAt DESC",
+        countQuery = "SELECT count(p) FROM Post p WHERE p.author.username = :username")
+    Page<PostResponse> findResponsesByAuthorUsername(@Param("username") String username, Pageable pageable);
+
+    @Query(POST_RESPONSE + "WHERE " + FEED_AUTHORS + "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<PostResponse> findFeedResponseSlice(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(POST_RESPONSE + "WHERE " + FEED_AUTHORS + """
+        AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :postId))
+        ORDER BY p.createdAt DESC, p.id DESC
+        """)
+    Slice<PostResponse> findFeedResponseSliceBefore(@Param("userId") Long userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("postId") UUID postId,
+                                                    Pageable pageable);
+
+    @Query(POST_RESPONSE + "WHERE a.username = :username ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<PostResponse> findResponseSliceByAuthorUsername(@Param("username") String username, Pageable pageable);
+
+    @Query(POST_RESPONSE + """
+        WHERE a.username = :username
+        AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :postId))
+        ORDER BY p.createdAt DESC, p.id DESC
+        """)
+    Slice<PostResponse> findResponseSliceByAuthorUsernameBefore(@Param("username") String username,
+                                                                @Param("createdAt") LocalDateTime createdAt,
+                                                                @Param("postId") UUID postId,
+                                                                Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :postId")
+    int incrementLikesCount(@Param("postId") UUID postId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :delta WHERE p.id = :postId")
+    int incrementCommentsCount(@Param("postId") UUID postId, @Param("delta") int delta);
+
+    @Query("SELECT p.id FROM Post p JOIN p.likes l WHERE l.identityId = :identityId AND p.id IN :postIds")
+    List<UUID> findIdsLikedBy(@Param("identityId") String identityId, @Param("postIds") Collection<UUID> postIds);
+
+    @Query("SELECT p.author.id FROM Post p WHERE p.id = :postId")
+    Optional<Long> findAuthorIdById(@Param("postId") UUID postId);
+
+    @Modifying
+    @Query(value = "INSERT INTO post_likes (post_id, profile_id) VALUES (:postId, :profileId) ON CONFLICT DO NOTHING",
+        nativeQuery = true)
+    int insertLike(@Param("postId") UUID postId, @Param("profileId") Long profileId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND profile_id = :profileId", nativeQuery = true)
+    int deleteLike(@Param("postId") UUID postId, @Param("profileId") Long profileId);
 }
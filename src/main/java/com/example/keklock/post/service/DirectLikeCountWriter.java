@@ -0,0 +1,21 @@
+package com.example.keklock.post.service;
+
+import com.example.keklock.post.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.posts.like-counter.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectLikeCountWriter implements LikeCountWriter {
+
+    private final PostRepository postRepository;
+
+    @Override
+    public void add(UUID postId, int delta) {
+        postRepository.incrementLikesCount(postId, delta);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.keklock.post.service;
+
+import java.util.UUID;
+
+// Applies like/unlike deltas to posts.likes_count; selected by app.posts.like-counter.mode
+public interface LikeCountWriter {
+
+    void add(UUID postId, int delta);
+}
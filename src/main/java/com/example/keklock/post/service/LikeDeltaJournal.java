@@ -0,0 +1,128 @@
+package com.example.keklock.post.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Append-only segment of like deltas that have not reached the database yet. Records are
+// postId (16 bytes) + delta (4 bytes); a torn record at the tail of a crashed segment is ignored.
+@Slf4j
+class LikeDeltaJournal implements AutoCloseable {
+
+    static final String PREFIX = "likes-";
+    static final String SUFFIX = ".journal";
+    private static final int RECORD_SIZE = 20;
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private LikeDeltaJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    static LikeDeltaJournal open(Path directory, long generation) {
+        Path path = directory.resolve("%s%020d%s".formatted(PREFIX, generation, SUFFIX));
+        try {
+            return new LikeDeltaJournal(path, FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open like journal " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void append(UUID postId, int delta) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE)
+            .putLong(postId.getMostSignificantBits())
+            .putLong(postId.getLeastSignificantBits())
+            .putInt(delta)
+            .flip();
+        try {
+            // A single write in APPEND mode is not interleaved with other appenders
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to like journal " + path, e);
+        }
+    }
+
+    void sync() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Failed to sync like journal {}", path, e);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete like journal {}", path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close like journal {}", path, e);
+        }
+    }
+
+    static List<Path> segments(Path directory) {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list like journals in " + directory, e);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    static long generationOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Not a like journal segment: " + segment, e);
+        }
+    }
+
+    static Map<UUID, Long> read(Path segment) {
+        Map<UUID, Long> deltas = new HashMap<>();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+            while (buffer.remaining() >= RECORD_SIZE) {
+                UUID postId = new UUID(buffer.getLong(), buffer.getLong());
+                deltas.merge(postId, (long) buffer.getInt(), Long::sum);
+            }
+            if (buffer.hasRemaining()) {
+                log.warn("Ignoring {} trailing bytes of torn record in like journal {}", buffer.remaining(), segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read like journal " + segment, e);
+        }
+        return deltas;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.keklock.post.service;
+
+import com.example.keklock.post.dto.PostResponse;
+import com.example.keklock.post.repository.PostRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Node-local read-through cache for single-post lookups. Entries are shared by all viewers,
+// so they never carry likedByViewer. Deletes and write-behind like flushes are broadcast through
+// PostCacheBroadcaster when Redis is enabled; other changes are local and other nodes catch up within the TTL.
+@Component
+@RequiredArgsConstructor
+public class PostCache {
+
+    private final PostRepository postRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.posts.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.posts.cache.ttl:30s}")
+    private Duration ttl;
+
+    private Cache<UUID, PostResponse> posts;
+
+    @PostConstruct
+    void init() {
+        posts = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, posts, "posts");
+    }
+
+    public Optional<PostResponse> get(UUID postId) {
+        // Concurrent misses on one post wait for a single load; missing posts are not cached
+        return Optional.ofNullable(posts.get(postId, id -> postRepository.findResponseById(id).orElse(null)));
+    }
+
+    // Cached posts are served as is and the rest are loaded with one query
+    public Map<UUID, PostResponse> getAll(Collection<UUID> postIds) {
+        return posts.getAll(postIds, missing -> postRepository.findResponsesByIdIn(Set.copyOf(missing)).stream()
+            .collect(Collectors.toMap(PostResponse::id, Function.identity())));
+    }
+
+    public void invalidate(UUID postId) {
+        posts.invalidate(postId);
+    }
+
+    public void invalidateAll(Collection<UUID> postIds) {
+        posts.invalidateAll(postIds);
+    }
+}
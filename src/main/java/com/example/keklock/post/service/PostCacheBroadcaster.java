@@ -0,0 +1,61 @@
+package com.example.keklock.post.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Carries PostCache evictions to the other nodes over the Redis listener container the feed near cache uses.
+// Posts get their own channel so feed cache traffic does not evict PostCache entries.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.data.redis.enabled", havingValue = "true")
+public class PostCacheBroadcaster implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "posts:invalidate";
+
+    private final PostCache postCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public void publish(Collection<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        String message = postIds.stream().map(UUID::toString).collect(Collectors.joining(","));
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            postCache.invalidateAll(postIds(body));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed post cache invalidation message: {}", body);
+        }
+    }
+
+    static List<UUID> postIds(String body) {
+        return body.isEmpty() ? List.of() : Arrays.stream(body.split(",")).map(UUID::fromString).toList();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.keklock.post.service;
 
+import com.example.keklock.common.dto.CursorPage;
 import com.example.keklock.common.exception.AlreadyLikedException;
+import com.example.keklock.common.exception.InvalidOperationException;
 import com.example.keklock.common.exception.NotLikedException;
 import com.example.keklock.common.exception.ResourceNotFoundException;
 import com.example.keklock.common.exception.UnauthorizedActionException;
@@ -8,23 +10,34 @@ import com.example.keklock.post.domain.Comment;
 import com.example.keklock.post.domain.Post;
 import com.example.keklock.post.dto.*;
 import com.example.keklock.post.event.CommentAddedEvent;
+import com.example.keklock.post.event.CommentDeletedEvent;
 import com.example.keklock.post.event.PostCreatedEvent;
+import com.example.keklock.post.event.PostDeletedEvent;
 import com.example.keklock.post.event.PostLikedEvent;
+import com.example.keklock.post.event.PostUnlikedEvent;
 import com.example.keklock.post.repository.CommentRepository;
 import com.example.keklock.post.repository.PostRepository;
 import com.example.keklock.profile.domain.Profile;
 import com.example.keklock.profile.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,6 +49,11 @@ public class PostService {
     private final CommentRepository commentRepository;
     private final ProfileRepository profileRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final LikeCountWriter likeCountWriter;
+    private final PostCache postCache;
+
+    @Value("${app.posts.batch.max-ids:100}")
+    private int maxBatchSize;
 
     @Transactional
     public PostResponse createPost(String identityId, CreatePostRequest request) {
@@ -63,16 +81,50 @@ public class PostService {
     }
 
     @Transactional(readOnly = true)
-    public PostResponse getPost(UUID postId) {
-        Post post = postRepository.findById(postId)
+    public PostResponse getPost(UUID postId, String viewerIdentityId) {
+        PostResponse post = postCache.get(postId)
             .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
-        return PostResponse.from(post);
+        return withLikedByViewer(viewerIdentityId, List.of(post)).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public PostBatchResponse getPosts(List<UUID> postIds, String viewerIdentityId) {
+        Set<UUID> requested = new LinkedHashSet<>(postIds);
+        if (requested.size() > maxBatchSize) {
+            throw new InvalidOperationException("At most " + maxBatchSize + " post ids can be requested at once");
+        }
+
+        Map<UUID, PostResponse> found = postCache.getAll(requested);
+        List<PostResponse> posts = new ArrayList<>(found.size());
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID postId : requested) {
+            PostResponse post = found.get(postId);
+            if (post == null) {
+                missingIds.add(postId);
+            } else {
+                posts.add(post);
+            }
+        }
+        return new PostBatchResponse(withLikedByViewer(viewerIdentityId, posts), missingIds);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PostResponse> getUserPosts(String username, String viewerIdentityId, Pageable pageable) {
+        Page<PostResponse> posts = postRepository.findResponsesByAuthorUsername(username, pageable);
+        return posts.map(likedByViewer(viewerIdentityId, posts.getContent()));
     }
 
     @Transactional(readOnly = true)
-    public Page<PostResponse> getUserPosts(String username, Pageable pageable) {
-        Page<Post> posts = postRepository.findByAuthorUsername(username, pageable);
-        return posts.map(PostResponse::from);
+    public CursorPage<PostResponse> getUserPostsSlice(String username, String viewerIdentityId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        Slice<PostResponse> posts;
+        if (cursor == null) {
+            posts = postRepository.findResponseSliceByAuthorUsername(username, limit);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            posts = postRepository.findResponseSliceByAuthorUsernameBefore(username, after.createdAt(), after.postId(), limit);
+        }
+        return PostCursor.page(posts.map(likedByViewer(viewerIdentityId, posts.getContent())));
     }
 
     @Transactional(readOnly = true)
@@ -80,11 +132,37 @@ public class PostService {
         Profile user = profileRepository.findByIdentityId(identityId)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
 
-        List<Profile> following = new ArrayList<>(user.getFollowing());
-        following.add(user);
+        Page<PostResponse> posts = postRepository.findFeedResponses(user.getId(), pageable);
+        return posts.map(likedByViewer(identityId, posts.getContent()));
+    }
 
-        Page<Post> posts = postRepository.findByAuthorsIn(following, pageable);
-        return posts.map(PostResponse::from);
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getFeedSlice(String identityId, String cursor, int size) {
+        Profile user = profileRepository.findByIdentityId(identityId)
+            .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
+
+        Pageable limit = PageRequest.of(0, size);
+        Slice<PostResponse> posts;
+        if (cursor == null) {
+            posts = postRepository.findFeedResponseSlice(user.getId(), limit);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            posts = postRepository.findFeedResponseSliceBefore(user.getId(), after.createdAt(), after.postId(), limit);
+        }
+        return PostCursor.page(posts.map(likedByViewer(identityId, posts.getContent())));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostResponse> withLikedByViewer(String viewerIdentityId, List<PostResponse> posts) {
+        return posts.stream().map(likedByViewer(viewerIdentityId, posts)).collect(Collectors.toList());
+    }
+
+    // Resolves the flag for a whole page with one post_likes lookup; anonymous viewers have liked nothing
+    private Function<PostResponse, PostResponse> likedByViewer(String viewerIdentityId, List<PostResponse> posts) {
+        Set<UUID> liked = viewerIdentityId == null || posts.isEmpty()
+            ? Set.of()
+            : new HashSet<>(postRepository.findIdsLikedBy(viewerIdentityId, posts.stream().map(PostResponse::id).toList()));
+        return post -> post.withLikedByViewer(liked.contains(post.id()));
     }
 
     @Transactional
@@ -96,8 +174,12 @@ public class PostService {
             throw new UnauthorizedActionException("You can only delete your own posts");
         }
 
+        Long authorId = post.getAuthor().getId();
         postRepository.delete(post);
         log.info("Post deleted: {}", postId);
+
+        eventPublisher.publishEvent(new PostDeletedEvent(postId, authorId));
+        log.debug("Published PostDeletedEvent for postId: {}", postId);
     }
 
     @Transactional
@@ -105,22 +187,20 @@ public class PostService {
         Profile user = profileRepository.findByIdentityId(identityId)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
 
-        Post post = postRepository.findById(postId)
+        Long postAuthorId = postRepository.findAuthorIdById(postId)
             .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
 
-        if (post.isLikedBy(user)) {
+        if (postRepository.insertLike(postId, user.getId()) == 0) {
             throw new AlreadyLikedException("Already liked this post");
         }
-
-        post.addLike(user);
-        postRepository.save(post);
+        likeCountWriter.add(postId, 1);
         log.info("Post {} liked by user {}", postId, identityId);
 
         PostLikedEvent event = new PostLikedEvent(
             postId,
             user.getId(),
             user.getUsername(),
-            post.getAuthor().getId()
+            postAuthorId
         );
         eventPublisher.publishEvent(event);
         log.debug("Published PostLikedEvent for postId: {}", postId);
@@ -131,16 +211,18 @@ public class PostService {
         Profile user = profileRepository.findByIdentityId(identityId)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
 
-        Post post = postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post not found with id: " + postId);
+        }
 
-        if (!post.isLikedBy(user)) {
+        if (postRepository.deleteLike(postId, user.getId()) == 0) {
             throw new NotLikedException("Post not liked yet");
         }
-
-        post.removeLike(user);
-        postRepository.save(post);
+        likeCountWriter.add(postId, -1);
         log.info("Post {} unliked by user {}", postId, identityId);
+
+        eventPublisher.publishEvent(new PostUnlikedEvent(postId, user.getId()));
+        log.debug("Published PostUnlikedEvent for postId: {}", postId);
     }
 
     @Transactional
@@ -157,6 +239,7 @@ public class PostService {
         comment.setContent(request.content());
 
         Comment saved = commentRepository.save(comment);
+        postRepository.incrementCommentsCount(postId, 1);
         log.info("Comment added to post {} by user {}", postId, identityId);
 
         CommentAddedEvent event = new CommentAddedEvent(
@@ -192,7 +275,12 @@ public class PostService {
             throw new UnauthorizedActionException("You can only delete your own comments");
         }
 
+        UUID postId = comment.getPost().getId();
         commentRepository.delete(comment);
+        postRepository.incrementCommentsCount(postId, -1);
         log.info("Comment deleted: {}", commentId);
+
+        eventPublisher.publishEvent(new CommentDeletedEvent(commentId, postId));
+        log.debug("Published CommentDeletedEvent for commentId: {}", commentId);
     }
 }
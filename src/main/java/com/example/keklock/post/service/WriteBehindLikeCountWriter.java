@@ -0,0 +1,218 @@
+package com.example.keklock.post.service;
+
+import com.example.keklock.post.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Absorbs like bursts in per-post LongAdders and writes the summed deltas to posts.likes_count
+// on a fixed delay, so a viral post costs one row update per flush instead of one per like.
+// Every delta is journaled before it is counted; segments left behind by a crash are replayed
+// on startup. A segment is written in one transaction, so a failed flush or replay applies none of
+// it and its retry applies it exactly once; only a crash between commit and segment delete re-applies it.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.posts.like-counter.mode", havingValue = "write-behind")
+public class WriteBehindLikeCountWriter implements LikeCountWriter {
+
+    private final PostRepository postRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final PostCache postCache;
+    private final ObjectProvider<PostCacheBroadcaster> broadcaster;
+    private final AtomicLong generations = new AtomicLong();
+    private final List<Path> failedSegments = new ArrayList<>();
+
+    // No default: a directory that does not survive restarts would silently drop unflushed likes
+    @Value("${app.posts.like-counter.journal-dir:}")
+    private String journalDir;
+
+    private Path directory;
+    private TransactionTemplate transactionTemplate;
+    private volatile Generation current;
+
+    // Writers register in inFlight before touching a generation, so once a generation is closed
+    // and inFlight drains to zero its counters and journal are final
+    private static final class Generation {
+        final LikeDeltaJournal journal;
+        final Map<UUID, LongAdder> counters = new ConcurrentHashMap<>();
+        final LongAdder inFlight = new LongAdder();
+        volatile boolean closed;
+
+        Generation(LikeDeltaJournal journal) {
+            this.journal = journal;
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (journalDir == null || journalDir.isBlank()) {
+            throw new IllegalStateException(
+                "app.posts.like-counter.journal-dir must point to a persistent directory in write-behind mode");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        directory = Files.createDirectories(Path.of(journalDir));
+
+        List<Path> segments = LikeDeltaJournal.segments(directory);
+        // Number new segments past any left behind, so CREATE_NEW cannot collide with one whose delete failed
+        segments.stream().mapToLong(LikeDeltaJournal::generationOf).max().ifPresent(generations::set);
+        for (Path segment : segments) {
+            log.info("Replaying unflushed like deltas from {}", segment);
+            replay(segment);
+        }
+
+        current = newGeneration();
+    }
+
+    @Override
+    public void add(UUID postId, int delta) {
+        // Only count likes whose post_likes row actually commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(postId, delta);
+                }
+            });
+        } else {
+            record(postId, delta);
+        }
+    }
+
+    private void record(UUID postId, int delta) {
+        while (true) {
+            Generation generation = current;
+            generation.inFlight.increment();
+            try {
+                if (generation.closed) {
+                    if (generation != current) {
+                        continue;
+                    }
+                    // Only the final generation stays current once closed, during shutdown
+                    postRepository.incrementLikesCount(postId, delta);
+                    return;
+                }
+                generation.journal.append(postId, delta);
+                generation.counters.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+                return;
+            } finally {
+                generation.inFlight.decrement();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.posts.like-counter.flush-interval:1000}")
+    public synchronized void flush() {
+        retryFailedSegments();
+
+        Generation previous = current;
+        if (previous.counters.isEmpty()) {
+            return;
+        }
+        current = newGeneration();
+        drain(previous);
+    }
+
+    @PreDestroy
+    synchronized void flushOnShutdown() {
+        retryFailedSegments();
+        drain(current);
+    }
+
+    private void drain(Generation generation) {
+        generation.closed = true;
+        while (generation.inFlight.sum() > 0) {
+            Thread.onSpinWait();
+        }
+        generation.journal.sync();
+
+        Map<UUID, Long> deltas = new HashMap<>();
+        generation.counters.forEach((postId, counter) -> deltas.put(postId, counter.sum()));
+        try {
+            write(deltas);
+            generation.journal.delete();
+        } catch (RuntimeException e) {
+            // The segment stays on disk and is retried on the next flush
+            generation.journal.close();
+            failedSegments.add(generation.journal.path());
+            log.error("Failed to flush like counters of {} posts, keeping journal for retry", deltas.size(), e);
+        }
+    }
+
+    private void retryFailedSegments() {
+        for (var iterator = failedSegments.iterator(); iterator.hasNext(); ) {
+            Path segment = iterator.next();
+            try {
+                replay(segment);
+                iterator.remove();
+            } catch (RuntimeException e) {
+                log.warn("Retry of like journal {} failed", segment, e);
+                return;
+            }
+        }
+    }
+
+    private void replay(Path segment) {
+        write(LikeDeltaJournal.read(segment));
+        // Committed: failing here must not put the segment back up for another retry
+        try {
+            Files.delete(segment);
+        } catch (IOException e) {
+            log.error("Cannot delete replayed like journal {}, it will be applied again on restart", segment, e);
+        }
+    }
+
+    private void write(Map<UUID, Long> deltas) {
+        // Posts are updated in id order so concurrent flushes from other nodes cannot deadlock
+        List<Map.Entry<UUID, Long>> pending = new ArrayList<>(new TreeMap<>(deltas).entrySet());
+        pending.removeIf(entry -> entry.getValue() == 0);
+
+        // All or nothing: the segment is retried whole, so a partially committed one would be applied twice
+        transactionTemplate.executeWithoutResult(status -> pending.forEach(entry ->
+            postRepository.incrementLikesCount(entry.getKey(), Math.toIntExact(entry.getValue()))));
+
+        // Like events skip the PostCache in this mode, so the new counts become visible here.
+        // Committed: a failed broadcast must not fail the flush and get the segment applied again
+        List<UUID> flushed = pending.stream().map(Map.Entry::getKey).toList();
+        postCache.invalidateAll(flushed);
+        try {
+            broadcaster.ifAvailable(it -> it.publish(flushed));
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast like counter flush of {} posts, other nodes catch up within the cache TTL",
+                flushed.size(), e);
+        }
+        log.debug("Flushed like counters of {} posts", pending.size());
+    }
+
+    private Generation newGeneration() {
+        try {
+            return new Generation(LikeDeltaJournal.open(directory, generations.incrementAndGet()));
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException("Like journal directory is not writable: " + directory, e);
+        }
+    }
+}
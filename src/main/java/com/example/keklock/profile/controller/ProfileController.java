@@ -1,15 +1,14 @@
 package com.example.keklock.profile.controller;
 
 import com.example.keklock.common.dto.ApiResponse;
+import com.example.keklock.common.dto.CursorPage;
 import com.example.keklock.profile.dto.ProfileResponse;
+import com.example.keklock.profile.dto.ProfileSummary;
 import com.example.keklock.profile.dto.UpdateProfileRequest;
 import com.example.keklock.profile.service.ProfileService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.web.PageableDefault;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -24,6 +23,8 @@ public class ProfileController {
 
     private final ProfileService profileService;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<ProfileResponse>> getCurrentProfile(
         @AuthenticationPrincipal Jwt jwt
@@ -82,20 +83,26 @@ public class ProfileController {
     }
 
     @GetMapping("/{username}/followers")
-    public ResponseEntity<ApiResponse<Page<ProfileResponse>>> getFollowers(
+    public ResponseEntity<ApiResponse<CursorPage<ProfileSummary>>> getFollowers(
         @PathVariable String username,
-        @PageableDefault(size = 20) Pageable pageable
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
     ) {
-        Page<ProfileResponse> followers = profileService.getFollowers(username, pageable);
+        CursorPage<ProfileSummary> followers = profileService.getFollowers(username, cursor, clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(followers));
     }
 
     @GetMapping("/{username}/following")
-    public ResponseEntity<ApiResponse<Page<ProfileResponse>>> getFollowing(
+    public ResponseEntity<ApiResponse<CursorPage<ProfileSummary>>> getFollowing(
         @PathVariable String username,
-        @PageableDefault(size = 20) Pageable pageable
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
     ) {
-        Page<ProfileResponse> following = profileService.getFollowing(username, pageable);
+        CursorPage<ProfileSummary> following = profileService.getFollowing(username, cursor, clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(following));
     }
+
+    private static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
@@ -5,13 +5,17 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "profiles")
+// followers_count is indexed so the followed-pull-authors join can start from the few profiles above the threshold
+@Table(name = "profiles", indexes = {
+    @Index(name = "idx_profiles_followers_count", columnList = "followers_count")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,11 +49,23 @@ public class Profile {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Maintained by atomic UPDATE queries in ProfileRepository, never written through the entity
+    @ColumnDefault("0")
+    @Column(name = "followers_count", nullable = false, updatable = false)
+    private int followersCount;
+
+    @ColumnDefault("0")
+    @Column(name = "following_count", nullable = false, updatable = false)
+    private int followingCount;
+
+    // The primary key (follower_id, following_id) serves "who do I follow"; the reverse index serves
+    // follower lists and fan-out, which seek by following_id and page by follower_id
     @ManyToMany
     @JoinTable(
         name = "follows",
         joinColumns = @JoinColumn(name = "follower_id"),
-        inverseJoinColumns = @JoinColumn(name = "following_id")
+        inverseJoinColumns = @JoinColumn(name = "following_id"),
+        indexes = @Index(name = "idx_follows_following_follower", columnList = "following_id, follower_id")
     )
     private Set<Profile> following = new HashSet<>();
 
@@ -66,26 +82,4 @@ public class Profile {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-
-    public void follow(Profile profile) {
-        this.following.add(profile);
-        profile.getFollowers().add(this);
-    }
-
-    public void unfollow(Profile profile) {
-        this.following.remove(profile);
-        profile.getFollowers().remove(this);
-    }
-
-    public boolean isFollowing(Profile profile) {
-        return this.following.contains(profile);
-    }
-
-    public int getFollowersCount() {
-        return followers.size();
-    }
-
-    public int getFollowingCount() {
-        return following.size();
-    }
 }
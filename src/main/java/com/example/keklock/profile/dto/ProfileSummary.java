@@ -0,0 +1,10 @@
+package com.example.keklock.profile.dto;
+
+public record ProfileSummary(
+    Long id,
+    String username,
+    String firstName,
+    String lastName,
+    String avatarUrl
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.keklock.profile.event;
+
+public record ProfileUnfollowedEvent(
+    Long followerId,
+    String followerUsername,
+    Long unfollowedId,
+    String unfollowedUsername
+) {
+}
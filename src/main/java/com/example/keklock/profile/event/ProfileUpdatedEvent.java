@@ -0,0 +1,8 @@
+package com.example.keklock.profile.event;
+
+public record ProfileUpdatedEvent(
+    Long profileId,
+    String username,
+    String avatarUrl
+) {
+}
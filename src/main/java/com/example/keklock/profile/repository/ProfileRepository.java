@@ -1,11 +1,16 @@
 package com.example.keklock.profile.repository;
 
 import com.example.keklock.profile.domain.Profile;
+import com.example.keklock.profile.dto.ProfileSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -21,4 +26,59 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
 
     @Query("SELECT p.following FROM Profile p WHERE p.id = :profileId")
     Set<Profile> findFollowingByProfileId(@Param("profileId") Long profileId);
+
+    @Query("SELECT p.id FROM Profile p WHERE p.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    // Keyset pages over follows ordered by profile id; afterId is the last id of the previous page
+    @Query("""
+        SELECT new com.example.keklock.profile.dto.ProfileSummary(f.id, f.username, f.firstName, f.lastName, f.avatarUrl)
+        FROM Profile p JOIN p.followers f
+        WHERE p.id = :profileId AND f.id > :afterId
+        ORDER BY f.id
+        """)
+    Slice<ProfileSummary> findFollowerSummariesAfter(@Param("profileId") Long profileId,
+                                                     @Param("afterId") long afterId,
+                                                     Pageable pageable);
+
+    @Query("""
+        SELECT new com.example.keklock.profile.dto.ProfileSummary(f.id, f.username, f.firstName, f.lastName, f.avatarUrl)
+        FROM Profile p JOIN p.following f
+        WHERE p.id = :profileId AND f.id > :afterId
+        ORDER BY f.id
+        """)
+    Slice<ProfileSummary> findFollowingSummariesAfter(@Param("profileId") Long profileId,
+                                                      @Param("afterId") long afterId,
+                                                      Pageable pageable);
+
+    @Query("SELECT p.followersCount FROM Profile p WHERE p.id = :profileId")
+    long countFollowers(@Param("profileId") Long profileId);
+
+    @Modifying
+    @Query(value = "INSERT INTO follows (follower_id, following_id) VALUES (:followerId, :followingId) ON CONFLICT DO NOTHING",
+        nativeQuery = true)
+    int insertFollow(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+
+    @Modifying
+    @Query(value = "DELETE FROM follows WHERE follower_id = :followerId AND following_id = :followingId", nativeQuery = true)
+    int deleteFollow(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+
+    @Modifying
+    @Query("UPDATE Profile p SET p.followersCount = p.followersCount + :delta WHERE p.id = :profileId")
+    int incrementFollowersCount(@Param("profileId") Long profileId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Profile p SET p.followingCount = p.followingCount + :delta WHERE p.id = :profileId")
+    int incrementFollowingCount(@Param("profileId") Long profileId, @Param("delta") int delta);
+
+    @Query(value = """
+        SELECT follower_id FROM follows
+        WHERE following_id = :profileId AND follower_id > :afterId
+        ORDER BY follower_id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findFollowerIdsAfter(@Param("profileId") Long profileId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query("SELECT f.id FROM Profile p JOIN p.following f WHERE p.id = :profileId AND f.followersCount >= :minFollowers")
+    List<Long> findFollowingIdsWithFollowersAtLeast(@Param("profileId") Long profileId, @Param("minFollowers") long minFollowers);
 }
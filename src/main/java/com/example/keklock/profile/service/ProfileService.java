@@ -1,5 +1,6 @@
 package com.example.keklock.profile.service;
 
+import com.example.keklock.common.dto.CursorPage;
 import com.example.keklock.common.exception.AlreadyFollowingException;
 import com.example.keklock.common.exception.InvalidOperationException;
 import com.example.keklock.common.exception.NotFollowingException;
@@ -7,23 +8,23 @@ import com.example.keklock.common.exception.ResourceNotFoundException;
 import com.example.keklock.common.service.FileStorageService;
 import com.example.keklock.profile.domain.Profile;
 import com.example.keklock.profile.dto.ProfileResponse;
+import com.example.keklock.profile.dto.ProfileSummary;
 import com.example.keklock.profile.dto.UpdateProfileRequest;
 import com.example.keklock.profile.event.ProfileCreatedEvent;
 import com.example.keklock.profile.event.ProfileFollowedEvent;
+import com.example.keklock.profile.event.ProfileUnfollowedEvent;
+import com.example.keklock.profile.event.ProfileUpdatedEvent;
 import com.example.keklock.profile.repository.ProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -62,6 +63,8 @@ public class ProfileService {
 
         Profile updated = profileRepository.save(profile);
         log.info("Profile updated for user: {}", identityId);
+
+        eventPublisher.publishEvent(new ProfileUpdatedEvent(updated.getId(), updated.getUsername(), updated.getAvatarUrl()));
         return ProfileResponse.from(updated);
     }
 
@@ -73,16 +76,14 @@ public class ProfileService {
         Profile following = profileRepository.findByUsername(followingUsername)
             .orElseThrow(() -> new ResourceNotFoundException("User to follow not found: " + followingUsername));
 
-        if (follower.equals(following)) {
+        if (follower.getId().equals(following.getId())) {
             throw new InvalidOperationException("Cannot follow yourself");
         }
 
-        if (follower.isFollowing(following)) {
+        if (profileRepository.insertFollow(follower.getId(), following.getId()) == 0) {
             throw new AlreadyFollowingException("Already following this user");
         }
-
-        follower.follow(following);
-        profileRepository.save(follower);
+        adjustFollowCounts(follower.getId(), following.getId(), 1);
         log.info("User {} now follows {}", followerIdentityId, followingUsername);
 
         ProfileFollowedEvent event = new ProfileFollowedEvent(
@@ -103,43 +104,61 @@ public class ProfileService {
         Profile following = profileRepository.findByUsername(followingUsername)
             .orElseThrow(() -> new ResourceNotFoundException("User to unfollow not found: " + followingUsername));
 
-        if (!follower.isFollowing(following)) {
+        if (profileRepository.deleteFollow(follower.getId(), following.getId()) == 0) {
             throw new NotFollowingException("Not following this user");
         }
-
-        follower.unfollow(following);
-        profileRepository.save(follower);
+        adjustFollowCounts(follower.getId(), following.getId(), -1);
         log.info("User {} unfollowed {}", followerIdentityId, followingUsername);
+
+        eventPublisher.publishEvent(new ProfileUnfollowedEvent(
+            follower.getId(),
+            follower.getUsername(),
+            following.getId(),
+            following.getUsername()
+        ));
+    }
+
+    // Both profile rows are locked in ascending id order, so A following B while B follows A cannot deadlock
+    private void adjustFollowCounts(Long followerId, Long followingId, int delta) {
+        if (followerId < followingId) {
+            profileRepository.incrementFollowingCount(followerId, delta);
+            profileRepository.incrementFollowersCount(followingId, delta);
+        } else {
+            profileRepository.incrementFollowersCount(followingId, delta);
+            profileRepository.incrementFollowingCount(followerId, delta);
+        }
     }
 
     @Transactional(readOnly = true)
-    public Page<ProfileResponse> getFollowers(String username, Pageable pageable) {
-        Profile profile = profileRepository.findByUsername(username)
+    public CursorPage<ProfileSummary> getFollowers(String username, String cursor, int size) {
+        Long profileId = profileRepository.findIdByUsername(username)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found with username: " + username));
-
-        Set<Profile> followers = profile.getFollowers();
-        List<ProfileResponse> followersList = followers.stream()
-            .map(ProfileResponse::from)
-            .skip(pageable.getOffset())
-            .limit(pageable.getPageSize())
-            .collect(Collectors.toList());
-
-        return new PageImpl<>(followersList, pageable, followers.size());
+        return page(profileRepository.findFollowerSummariesAfter(profileId, decodeCursor(cursor), PageRequest.of(0, size)));
     }
 
     @Transactional(readOnly = true)
-    public Page<ProfileResponse> getFollowing(String username, Pageable pageable) {
-        Profile profile = profileRepository.findByUsername(username)
+    public CursorPage<ProfileSummary> getFollowing(String username, String cursor, int size) {
+        Long profileId = profileRepository.findIdByUsername(username)
             .orElseThrow(() -> new ResourceNotFoundException("Profile not found with username: " + username));
+        return page(profileRepository.findFollowingSummariesAfter(profileId, decodeCursor(cursor), PageRequest.of(0, size)));
+    }
 
-        Set<Profile> following = profile.getFollowing();
-        List<ProfileResponse> followingList = following.stream()
-            .map(ProfileResponse::from)
-            .skip(pageable.getOffset())
-            .limit(pageable.getPageSize())
-            .collect(Collectors.toList());
+    // The cursor is the id of the last profile on the previous page
+    private static long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new InvalidOperationException("Invalid cursor");
+        }
+    }
 
-        return new PageImpl<>(followingList, pageable, following.size());
+    private static CursorPage<ProfileSummary> page(Slice<ProfileSummary> slice) {
+        List<ProfileSummary> content = slice.getContent();
+        String nextCursor = content.isEmpty() ? null : String.valueOf(content.get(content.size() - 1).id());
+        return CursorPage.of(slice, nextCursor);
     }
 
     @Transactional
@@ -191,6 +210,8 @@ public class ProfileService {
         Profile updated = profileRepository.save(profile);
         log.info("Avatar uploaded successfully for user: {}", identityId);
 
+        eventPublisher.publishEvent(new ProfileUpdatedEvent(updated.getId(), updated.getUsername(), avatarUrl));
+
         return ProfileResponse.from(updated);
     }
 
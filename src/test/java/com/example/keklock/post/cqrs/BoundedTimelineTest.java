@@ -0,0 +1,71 @@
+package com.example.keklock.post.cqrs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTimelineTest {
+
+    @Test
+    void trimsOldestEntryOverCapacity() {
+        BoundedTimeline timeline = new BoundedTimeline(3);
+        List<TimelineEntry> trimmed = new ArrayList<>();
+        List<TimelineEntry> added = IntStream.range(0, 5)
+            .mapToObj(i -> new TimelineEntry(UUID.randomUUID(), i))
+            .toList();
+
+        added.forEach(entry -> timeline.add(entry, trimmed::add));
+
+        assertThat(timeline.size()).isEqualTo(3);
+        assertThat(timeline.page(0, 10)).containsExactly(added.get(4), added.get(3), added.get(2));
+        assertThat(trimmed).containsExactly(added.get(0), added.get(1));
+    }
+
+    @Test
+    void duplicateAddIsIgnored() {
+        BoundedTimeline timeline = new BoundedTimeline(3);
+        TimelineEntry entry = new TimelineEntry(UUID.randomUUID(), 1);
+
+        assertThat(timeline.add(entry, trimmed -> {})).isTrue();
+        assertThat(timeline.add(entry, trimmed -> {})).isFalse();
+        assertThat(timeline.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentAddsNeverExceedCapacity() throws InterruptedException {
+        int capacity = 100;
+        int threads = 8;
+        int perThread = 2_000;
+        BoundedTimeline timeline = new BoundedTimeline(capacity);
+        AtomicInteger trimmed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    timeline.add(new TimelineEntry(UUID.randomUUID(), Math.random()), entry -> trimmed.incrementAndGet());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(timeline.size()).isEqualTo(capacity);
+        assertThat(timeline.page(0, capacity * 2)).hasSize(capacity);
+        assertThat(trimmed.get()).isEqualTo(threads * perThread - capacity);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.keklock.post.cqrs;
+
+import com.example.keklock.post.domain.Post;
+import com.example.keklock.post.repository.PostRepository;
+import com.example.keklock.post.service.PostService;
+import com.example.keklock.profile.domain.Profile;
+import com.example.keklock.profile.repository.ProfileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedQueryServiceTest {
+
+    private final FeedCacheService feedCacheService = mock(FeedCacheService.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final FeedQueryService feedQueryService = new FeedQueryService(
+        feedCacheService,
+        mock(ProfileRepository.class),
+        mock(PostService.class),
+        postRepository,
+        new RankingPolicy(),
+        mock(FanoutPolicy.class),
+        new FeedCacheMetrics(new SimpleMeterRegistry())
+    );
+
+    @Test
+    void unfollowRemovesAuthoredPostsWhoseRecordsExpired() {
+        ReflectionTestUtils.setField(feedQueryService, "maxEntriesPerUser", 500);
+        FeedEntry cached = entry(100L);
+        FeedEntry expired = entry(100L);
+        FeedEntry other = entry(200L);
+        when(feedCacheService.getUserTimeline(eq(1L), eq(0), anyInt())).thenReturn(List.of(
+            new TimelineEntry(cached.postId(), 3), new TimelineEntry(expired.postId(), 2), new TimelineEntry(other.postId(), 1)));
+        when(feedCacheService.getFeedEntries(anyCollection()))
+            .thenReturn(Map.of(cached.postId(), cached, other.postId(), other));
+        when(postRepository.findWithAuthorByIdIn(List.of(expired.postId()))).thenReturn(List.of(post(expired)));
+
+        feedQueryService.removeFollowedAuthor(1L, 100L);
+
+        verify(feedCacheService).removeFromUserFeed(eq(1L), argThat(postIds ->
+            postIds.size() == 2 && postIds.containsAll(List.of(cached.postId(), expired.postId()))));
+    }
+
+    @Test
+    void unfollowOnAColdFeedDoesNothing() {
+        ReflectionTestUtils.setField(feedQueryService, "maxEntriesPerUser", 500);
+        when(feedCacheService.getUserTimeline(eq(1L), eq(0), anyInt())).thenReturn(List.of());
+        when(feedCacheService.getRankedTimeline(eq(1L), eq(0), anyInt())).thenReturn(List.of());
+
+        feedQueryService.removeFollowedAuthor(1L, 100L);
+
+        verify(feedCacheService, never()).removeFromUserFeed(any(), any());
+    }
+
+    private static FeedEntry entry(Long authorId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new FeedEntry(UUID.randomUUID(), authorId, "author" + authorId, null, "post", null, 0, 0, now, now);
+    }
+
+    private static Post post(FeedEntry entry) {
+        Profile author = new Profile();
+        author.setId(entry.authorId());
+        author.setUsername(entry.authorUsername());
+        Post post = new Post();
+        post.setId(entry.postId());
+        post.setAuthor(author);
+        post.setContent(entry.content());
+        post.setCreatedAt(entry.createdAt());
+        post.setUpdatedAt(entry.updatedAt());
+        return post;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.keklock.post.cqrs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryFeedCacheServiceTest {
+
+    private static final int MAX_ENTRIES_PER_USER = 3;
+    private static final long MAX_TOTAL_ENTRIES = 10;
+
+    private final FollowerIdSource followerIdSource = mock(FollowerIdSource.class);
+    private final RankingPolicy rankingPolicy = new RankingPolicy();
+    private InMemoryFeedCacheService feedCacheService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rankingPolicy, "decayHours", 12);
+        ReflectionTestUtils.setField(rankingPolicy, "commentWeight", 2);
+        feedCacheService = new InMemoryFeedCacheService(
+            followerIdSource,
+            rankingPolicy,
+            new FeedCacheMetrics(new SimpleMeterRegistry())
+        );
+        ReflectionTestUtils.setField(feedCacheService, "maxEntriesPerUser", MAX_ENTRIES_PER_USER);
+        ReflectionTestUtils.setField(feedCacheService, "maxTotalEntries", MAX_TOTAL_ENTRIES);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFeedsAndReleasesTheirPosts() {
+        List<FeedEntry> firstFeed = posts(100L, 3);
+        feedCacheService.backfillUserFeed(1L, firstFeed);
+        for (long userId = 2; userId <= 5; userId++) {
+            feedCacheService.backfillUserFeed(userId, posts(100L + userId, 3));
+        }
+
+        assertThat(feedCacheService.totalEntries()).isLessThanOrEqualTo(MAX_TOTAL_ENTRIES);
+        assertThat(feedCacheService.getUserTimeline(1L, 0, 10)).isEmpty();
+        assertThat(feedCacheService.getFeedEntries(ids(firstFeed))).isEmpty();
+        assertThat(feedCacheService.getUserTimeline(5L, 0, 10)).hasSize(3);
+    }
+
+    @Test
+    void sharedPostsSurviveUntilTheLastFeedReleasesThem() {
+        List<FeedEntry> shared = posts(100L, 2);
+        feedCacheService.backfillUserFeed(1L, shared);
+        feedCacheService.backfillUserFeed(2L, shared);
+
+        feedCacheService.invalidateUserFeed(1L);
+        assertThat(feedCacheService.getFeedEntries(ids(shared))).hasSize(2);
+
+        feedCacheService.invalidateUserFeed(2L);
+        assertThat(feedCacheService.getFeedEntries(ids(shared))).isEmpty();
+        assertThat(feedCacheService.totalEntries()).isZero();
+    }
+
+    @Test
+    void rankedTimelinesAreChargedToTheBudget() {
+        ReflectionTestUtils.setField(rankingPolicy, "enabled", true);
+
+        feedCacheService.backfillUserFeed(1L, posts(100L, 3));
+        assertThat(feedCacheService.totalEntries()).isEqualTo(6);
+        assertThat(feedCacheService.getRankedTimeline(1L, 0, 10)).hasSize(3);
+
+        feedCacheService.invalidateUserFeed(1L);
+        assertThat(feedCacheService.totalEntries()).isZero();
+    }
+
+    @Test
+    void concurrentWritesAndEvictionKeepTheBudgetExact() throws InterruptedException {
+        ReflectionTestUtils.setField(rankingPolicy, "enabled", true);
+        List<UUID> stored = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    long userId = random.nextLong(1, 20);
+                    List<FeedEntry> batch = posts(100L + random.nextLong(5), 2);
+                    stored.addAll(ids(batch));
+                    if (random.nextInt(10) == 0) {
+                        feedCacheService.invalidateUserFeed(userId);
+                    } else {
+                        feedCacheService.backfillUserFeed(userId, batch);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        for (long userId = 1; userId < 20; userId++) {
+            feedCacheService.invalidateUserFeed(userId);
+        }
+        assertThat(feedCacheService.totalEntries()).isZero();
+        assertThat(feedCacheService.getFeedEntries(stored)).isEmpty();
+    }
+
+    @Test
+    void pullAuthorTimelinesAreBoundedAndCharged() {
+        List<FeedEntry> authored = posts(100L, 5);
+        authored.forEach(feedEntry -> feedCacheService.addToAuthorTimeline(100L, feedEntry));
+
+        assertThat(feedCacheService.getAuthorTimeline(100L, 10)).hasSize(MAX_ENTRIES_PER_USER);
+        assertThat(feedCacheService.totalEntries()).isEqualTo(MAX_ENTRIES_PER_USER);
+        assertThat(feedCacheService.getFeedEntries(ids(authored.subList(0, 2)))).isEmpty();
+    }
+
+    @Test
+    void fanOutOnlyReachesCachedFeeds() {
+        feedCacheService.backfillUserFeed(1L, posts(200L, 1));
+        givenFollowers(1L, 2L);
+        FeedEntry post = posts(100L, 1).getFirst();
+
+        feedCacheService.addToFollowerFeeds(100L, post);
+
+        assertThat(feedCacheService.getUserTimeline(1L, 0, 10)).extracting(TimelineEntry::postId).contains(post.postId());
+        assertThat(feedCacheService.getUserTimeline(2L, 0, 10)).isEmpty();
+        assertThat(feedCacheService.getUserTimeline(100L, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void fanOutToColdFeedsKeepsNoRecords() {
+        givenFollowers(2L, 3L);
+        FeedEntry post = posts(100L, 1).getFirst();
+
+        feedCacheService.addToFollowerFeeds(100L, post);
+
+        assertThat(feedCacheService.getFeedEntries(List.of(post.postId()))).isEmpty();
+        assertThat(feedCacheService.totalEntries()).isZero();
+    }
+
+    @Test
+    void authorUpdatesReachBackfilledPosts() {
+        List<FeedEntry> backfilled = posts(100L, 2);
+        feedCacheService.backfillUserFeed(1L, backfilled);
+
+        feedCacheService.updateAuthor(100L, "renamed", "avatar.png");
+
+        assertThat(feedCacheService.getFeedEntries(ids(backfilled)).values())
+            .allSatisfy(feedEntry -> assertThat(feedEntry.authorUsername()).isEqualTo("renamed"));
+
+        feedCacheService.removeFromUserFeed(1L, ids(backfilled));
+        assertThat(feedCacheService.getUserTimeline(1L, 0, 10)).isEmpty();
+        assertThat(feedCacheService.totalEntries()).isZero();
+    }
+
+    private void givenFollowers(Long... followerIds) {
+        when(followerIdSource.forEachBatch(anyLong(), any())).thenAnswer(invocation -> {
+            Consumer<List<Long>> batchConsumer = invocation.getArgument(1);
+            batchConsumer.accept(List.of(followerIds));
+            return (long) followerIds.length;
+        });
+    }
+
+    private static List<FeedEntry> posts(Long authorId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, count)
+            .mapToObj(i -> new FeedEntry(UUID.randomUUID(), authorId, "author" + authorId, null,
+                "post " + i, null, 0, 0, now.plusSeconds(i), now.plusSeconds(i)))
+            .toList();
+    }
+
+    private static List<UUID> ids(List<FeedEntry> feedEntries) {
+        return feedEntries.stream().map(FeedEntry::postId).toList();
+    }
+}
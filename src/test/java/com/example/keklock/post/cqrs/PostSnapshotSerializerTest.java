@@ -0,0 +1,105 @@
+package com.example.keklock.post.cqrs;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostSnapshotSerializerTest {
+
+    private final PostSnapshotSerializer binary = new PostSnapshotSerializer(PostSnapshotSerializer.Format.BINARY);
+    private final PostSnapshotSerializer json = new PostSnapshotSerializer(PostSnapshotSerializer.Format.JSON);
+
+    @Test
+    void binaryRoundTrip() {
+        PostSnapshot snapshot = snapshot();
+
+        assertThat(binary.deserialize(binary.serialize(snapshot))).isEqualTo(snapshot);
+    }
+
+    @Test
+    void jsonRoundTrip() {
+        PostSnapshot snapshot = snapshot();
+
+        byte[] payload = json.serialize(snapshot);
+
+        assertThat(new String(payload, StandardCharsets.UTF_8)).startsWith("{");
+        assertThat(json.deserialize(payload)).isEqualTo(snapshot);
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        PostSnapshot snapshot = new PostSnapshot(UUID.randomUUID(), 7L, "alice", null, "text", null,
+            LocalDateTime.of(2024, 5, 1, 12, 30), null);
+
+        assertThat(binary.deserialize(binary.serialize(snapshot))).isEqualTo(snapshot);
+        assertThat(json.deserialize(json.serialize(snapshot))).isEqualTo(snapshot);
+    }
+
+    @Test
+    void readsEitherFormatRegardlessOfSetting() {
+        PostSnapshot snapshot = snapshot();
+
+        assertThat(binary.deserialize(json.serialize(snapshot))).isEqualTo(snapshot);
+        assertThat(json.deserialize(binary.serialize(snapshot))).isEqualTo(snapshot);
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        PostSnapshot snapshot = snapshot();
+
+        assertThat(binary.serialize(snapshot).length).isLessThan(json.serialize(snapshot).length);
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] payload = binary.serialize(snapshot());
+
+        assertThatThrownBy(() -> binary.deserialize(Arrays.copyOf(payload, payload.length - 3)))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(Arrays.copyOf(payload, 10)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] payload = binary.serialize(snapshot());
+        payload[1] = 99;
+
+        assertThatThrownBy(() -> binary.deserialize(payload))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("99");
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThatThrownBy(() -> json.deserialize("{\"postId\":".getBytes(StandardCharsets.UTF_8)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void nullAndEmptyPayloadsAreNull() {
+        assertThat(binary.serialize(null)).isNull();
+        assertThat(binary.deserialize(null)).isNull();
+        assertThat(binary.deserialize(new byte[0])).isNull();
+    }
+
+    private static PostSnapshot snapshot() {
+        return new PostSnapshot(
+            UUID.randomUUID(),
+            42L,
+            "alice",
+            "https://cdn.example.com/a.png",
+            "Hello, wörld 👋",
+            "https://cdn.example.com/p.png",
+            LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_789),
+            LocalDateTime.of(2024, 5, 2, 8, 0)
+        );
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.keklock.post.repository;
+
+import com.example.keklock.post.domain.Post;
+import com.example.keklock.post.dto.PostResponse;
+import com.example.keklock.profile.domain.Profile;
+import com.example.keklock.profile.repository.ProfileRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PostRepositoryTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Profile alice;
+    private Profile bob;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        alice = persistProfile("alice");
+        bob = persistProfile("bob");
+        Profile carol = persistProfile("carol");
+        follow(alice, bob);
+        for (int i = 0; i < 15; i++) {
+            persistPost(i % 2 == 0 ? alice : bob, "post " + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            persistPost(carol, "unfollowed " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void feedPageIsOneSelectPlusCountWithoutLoadingEntities() {
+        Page<PostResponse> page = postRepository.findFeedResponses(alice.getId(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(15);
+        assertThat(page.getContent()).allSatisfy(post -> assertThat(post.authorUsername()).isIn("alice", "bob"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void userPostSliceIsOneSelectWithoutLoadingEntities() {
+        Slice<PostResponse> slice = postRepository.findResponseSliceByAuthorUsername("alice", PageRequest.of(0, 5));
+
+        assertThat(slice.getContent()).hasSize(5).allSatisfy(post -> assertThat(post.authorUsername()).isEqualTo("alice"));
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void projectionCarriesCounters() {
+        Post post = postRepository.findResponseSliceByAuthorUsername("bob", PageRequest.of(0, 1)).getContent().stream()
+            .map(response -> entityManager.find(Post.class, response.id()))
+            .findFirst()
+            .orElseThrow();
+        postRepository.incrementLikesCount(post.getId(), 3);
+        postRepository.incrementCommentsCount(post.getId(), 2);
+        entityManager.clear();
+
+        PostResponse response = postRepository.findResponseSliceByAuthorUsername("bob", PageRequest.of(0, 1)).getContent().get(0);
+        assertThat(response.likesCount()).isEqualTo(3);
+        assertThat(response.commentsCount()).isEqualTo(2);
+        assertThat(response.likedByViewer()).isFalse();
+    }
+
+    private Profile persistProfile(String username) {
+        Profile profile = new Profile();
+        profile.setIdentityId(username + "-identity");
+        profile.setUsername(username);
+        entityManager.persist(profile);
+        return profile;
+    }
+
+    // Mirrors ProfileService.followUser; insertFollow itself uses ON CONFLICT, which H2 does not parse
+    private void follow(Profile follower, Profile followed) {
+        entityManager.flush();
+        entityManager.createNativeQuery("INSERT INTO follows (follower_id, following_id) VALUES (:followerId, :followingId)")
+            .setParameter("followerId", follower.getId())
+            .setParameter("followingId", followed.getId())
+            .executeUpdate();
+        profileRepository.incrementFollowingCount(follower.getId(), 1);
+        profileRepository.incrementFollowersCount(followed.getId(), 1);
+    }
+
+    private void persistPost(Profile author, String content) {
+        Post post = new Post();
+        post.setAuthor(author);
+        post.setContent(content);
+        entityManager.persist(post);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.keklock.post.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LikeDeltaJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readSumsDeltasPerPost() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        try (LikeDeltaJournal journal = LikeDeltaJournal.open(directory, 1)) {
+            journal.append(first, 1);
+            journal.append(second, 1);
+            journal.append(first, 1);
+            journal.append(first, -1);
+            journal.sync();
+
+            assertThat(LikeDeltaJournal.read(journal.path())).isEqualTo(Map.of(first, 1L, second, 1L));
+        }
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        UUID postId = UUID.randomUUID();
+        Path segment;
+        try (LikeDeltaJournal journal = LikeDeltaJournal.open(directory, 1)) {
+            journal.append(postId, 3);
+            segment = journal.path();
+        }
+        // A crash in the middle of the next append
+        Files.write(segment, new byte[] {1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        assertThat(LikeDeltaJournal.read(segment)).isEqualTo(Map.of(postId, 3L));
+    }
+
+    @Test
+    void segmentsAreListedInGenerationOrder() {
+        LikeDeltaJournal.open(directory, 10).close();
+        LikeDeltaJournal.open(directory, 2).close();
+        LikeDeltaJournal.open(directory, 1).close();
+
+        assertThat(LikeDeltaJournal.segments(directory))
+            .extracting(path -> path.getFileName().toString())
+            .containsExactly(
+                "likes-00000000000000000001.journal",
+                "likes-00000000000000000002.journal",
+                "likes-00000000000000000010.journal"
+            );
+    }
+
+    @Test
+    void generationIsParsedFromTheFileName() {
+        LikeDeltaJournal.open(directory, 42).close();
+
+        assertThat(LikeDeltaJournal.generationOf(LikeDeltaJournal.segments(directory).getFirst())).isEqualTo(42);
+        assertThatThrownBy(() -> LikeDeltaJournal.generationOf(directory.resolve("likes-x.journal")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deleteRemovesTheSegment() {
+        LikeDeltaJournal journal = LikeDeltaJournal.open(directory, 1);
+        journal.append(UUID.randomUUID(), 1);
+
+        journal.delete();
+
+        assertThat(LikeDeltaJournal.segments(directory)).isEmpty();
+    }
+}
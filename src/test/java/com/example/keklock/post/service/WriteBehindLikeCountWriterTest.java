@@ -0,0 +1,190 @@
+package com.example.keklock.post.service;
+
+import com.example.keklock.post.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class WriteBehindLikeCountWriterTest {
+
+    @TempDir
+    Path journalDir;
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final Set<UUID> failingPosts = ConcurrentHashMap.newKeySet();
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostCache postCache = mock(PostCache.class);
+    private final PostCacheBroadcaster broadcaster = mock(PostCacheBroadcaster.class);
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            UUID postId = invocation.getArgument(0);
+            if (failingPosts.remove(postId)) {
+                throw new IllegalStateException("lock timeout on " + postId);
+            }
+            database.pending.merge(postId, (long) (int) invocation.getArgument(1), Long::sum);
+            return 1;
+        }).when(postRepository).incrementLikesCount(any(), anyInt());
+    }
+
+    @Test
+    void flushWritesSummedDeltas() throws IOException {
+        UUID postId = UUID.randomUUID();
+        WriteBehindLikeCountWriter writer = newWriter();
+
+        writer.add(postId, 1);
+        writer.add(postId, 1);
+        writer.add(postId, -1);
+        writer.flush();
+
+        assertThat(database.committed).isEqualTo(Map.of(postId, 1L));
+        assertThat(LikeDeltaJournal.segments(journalDir)).hasSize(1);
+    }
+
+    @Test
+    void failedFlushIsRetriedExactlyOnce() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        WriteBehindLikeCountWriter writer = newWriter();
+
+        writer.add(first, 1);
+        writer.add(second, 2);
+        // The second post fails after the first was already updated in the same flush
+        failingPosts.add(second);
+        writer.flush();
+
+        assertThat(database.committed).isEmpty();
+
+        writer.flush();
+        writer.flush();
+
+        assertThat(database.committed).isEqualTo(Map.of(first, 1L, second, 2L));
+    }
+
+    @Test
+    void segmentsLeftByACrashAreReplayedOnStartup() throws IOException {
+        UUID postId = UUID.randomUUID();
+        WriteBehindLikeCountWriter crashed = newWriter();
+        crashed.add(postId, 3);
+
+        newWriter();
+
+        assertThat(database.committed).isEqualTo(Map.of(postId, 3L));
+        // Only the restarted writer's fresh segment remains
+        assertThat(LikeDeltaJournal.segments(journalDir)).hasSize(1);
+    }
+
+    @Test
+    void newSegmentsAreNumberedPastLeftoverOnes() throws IOException {
+        UUID postId = UUID.randomUUID();
+        try (LikeDeltaJournal leftover = LikeDeltaJournal.open(journalDir, 7)) {
+            leftover.append(postId, 1);
+        }
+
+        newWriter();
+
+        assertThat(database.committed).isEqualTo(Map.of(postId, 1L));
+        assertThat(LikeDeltaJournal.segments(journalDir))
+            .extracting(LikeDeltaJournal::generationOf)
+            .containsExactly(8L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startupFailsWithoutAJournalDirectory() {
+        WriteBehindLikeCountWriter writer = new WriteBehindLikeCountWriter(postRepository, database, postCache,
+            mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(writer, "journalDir", "");
+
+        assertThatThrownBy(writer::init)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("journal-dir");
+    }
+
+    @Test
+    void flushEvictsAndBroadcastsFlushedPosts() throws IOException {
+        UUID postId = UUID.randomUUID();
+        WriteBehindLikeCountWriter writer = newWriter();
+
+        writer.add(postId, 1);
+        writer.flush();
+
+        verify(postCache).invalidateAll(List.of(postId));
+        verify(broadcaster).publish(List.of(postId));
+    }
+
+    @Test
+    void failedBroadcastDoesNotReapplyTheSegment() throws IOException {
+        UUID postId = UUID.randomUUID();
+        doThrow(new IllegalStateException("redis down")).when(broadcaster).publish(any());
+        WriteBehindLikeCountWriter writer = newWriter();
+
+        writer.add(postId, 1);
+        writer.flush();
+        writer.flush();
+
+        assertThat(database.committed).isEqualTo(Map.of(postId, 1L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteBehindLikeCountWriter newWriter() throws IOException {
+        ObjectProvider<PostCacheBroadcaster> broadcasterProvider = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<PostCacheBroadcaster>>getArgument(0).accept(broadcaster);
+            return null;
+        }).when(broadcasterProvider).ifAvailable(any());
+        WriteBehindLikeCountWriter writer = new WriteBehindLikeCountWriter(postRepository, database, postCache, broadcasterProvider);
+        ReflectionTestUtils.setField(writer, "journalDir", journalDir.toString());
+        writer.init();
+        return writer;
+    }
+
+    // Buffers updates per transaction and applies them only on commit
+    private static final class FakeDatabase implements PlatformTransactionManager {
+        final Map<UUID, Long> committed = new HashMap<>();
+        final Map<UUID, Long> pending = new HashMap<>();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            pending.clear();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            pending.forEach((postId, delta) -> committed.merge(postId, delta, Long::sum));
+            pending.clear();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            pending.clear();
+        }
+    }
+}